@@ -50,6 +50,73 @@ tasks.test {
     maxHeapSize = "256m"
 }
 
+// Classes compiled for Java 24 replace their Java 21 counterparts in the multi-release JAR
+val java24 by sourceSets.creating {
+    java.setSrcDirs(listOf("src/main/java24"))
+    resources.setSrcDirs(emptyList<String>())
+    compileClasspath += sourceSets.main.get().output
+}
+
+tasks.named<JavaCompile>(java24.compileJavaTaskName) {
+    javaCompiler = javaToolchains.compilerFor { languageVersion = JavaLanguageVersion.of(24) }
+}
+
+tasks.jar {
+    into("META-INF/versions/24") {
+        from(java24.output)
+    }
+    manifest {
+        attributes("Multi-Release" to "true")
+    }
+}
+
+tasks.named<Jar>("sourcesJar") {
+    into("META-INF/versions/24") {
+        from(java24.allJava)
+    }
+}
+
+val testJava24 by tasks.registering(Test::class) {
+    description = "Runs the tests on Java 24 against the classes of META-INF/versions/24."
+    group = "verification"
+    useJUnitPlatform()
+    maxHeapSize = "256m"
+    javaLauncher = javaToolchains.launcherFor { languageVersion = JavaLanguageVersion.of(24) }
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = java24.output + sourceSets.test.get().runtimeClasspath
+    systemProperty("de.cronn.commons.lang.expectedStreamOperationsRelease", "24")
+}
+
+val jmh by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+tasks.register<JavaExec>("jmh") {
+    description = "Runs the JMH benchmarks with the GC profiler. Use -Pjmh.includes=<regex> to select benchmarks."
+    group = "verification"
+    classpath = jmh.runtimeClasspath
+    mainClass = "org.openjdk.jmh.Main"
+    val resultFile = layout.buildDirectory.file("reports/jmh/results.json")
+    outputs.file(resultFile)
+    outputs.upToDateWhen { false }
+    args("-prof", "gc", "-rf", "json", "-rff", resultFile.get().asFile.path)
+    providers.gradleProperty("jmh.includes").orNull?.let { args(it) }
+}
+
+val checkAllocationBudgets by tasks.registering(JavaExec::class) {
+    description = "Fails if a hot-path utility allocates more bytes per operation than allowed by its budget."
+    group = "verification"
+    classpath = jmh.runtimeClasspath
+    mainClass = "de.cronn.commons.lang.AllocationBudgetCheck"
+    // the budgets are measured on Java 21, see allocation-budgets.properties
+    javaLauncher = javaToolchains.launcherFor { languageVersion = JavaLanguageVersion.of(21) }
+}
+
+tasks.check {
+    dependsOn(testJava24, checkAllocationBudgets)
+}
+
 dependencies {
     testImplementation("org.junit.jupiter:junit-jupiter-params:latest.release")
     testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine:latest.release")
@@ -57,6 +124,9 @@ dependencies {
 
     testImplementation("org.assertj:assertj-core:latest.release")
 
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:latest.release")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:latest.release")
+
     components.all {
         if (id.version.matches(Regex("(?i).+([-.])(CANDIDATE|RC|BETA|ALPHA|M\\d+).*"))) {
             status = "milestone"
@@ -0,0 +1,170 @@
+package de.cronn.commons.lang;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Measures the bytes allocated per operation of hot-path utilities and fails if an operation
+ * exceeds its budget in {@code allocation-budgets.properties}.
+ *
+ * <p>Each operation is warmed up first, so that the JIT had a chance to apply escape analysis, and
+ * then measured for a fixed number of iterations with {@link
+ * com.sun.management.ThreadMXBean#getCurrentThreadAllocatedBytes()}. The smallest value of several
+ * rounds is compared against the budget.
+ *
+ * <p>The budgets are the values measured with the JDK named in {@code
+ * allocation-budgets.properties}. Other JDK updates or JIT decisions may allocate slightly more, so
+ * an operation fails only if it exceeds its budget by more than {@value #TOLERANCE_PERCENT}%. A
+ * budget of 0 has no tolerance: an operation that does not allocate must stay that way.
+ *
+ * <p>Run via {@code ./gradlew checkAllocationBudgets}, which is part of {@code ./gradlew check}.
+ */
+public final class AllocationBudgetCheck {
+
+  private static final String BUDGETS_RESOURCE = "/allocation-budgets.properties";
+  private static final int WARMUP_ITERATIONS = 50_000;
+  private static final int MEASUREMENT_ITERATIONS = 10_000;
+  private static final int ROUNDS = 5;
+  private static final int TOLERANCE_PERCENT = 10;
+
+  private static volatile int sink;
+
+  private AllocationBudgetCheck() {}
+
+  public static void main(String[] args) {
+    Map<String, Long> budgets = loadBudgets();
+    Map<String, ToIntFunction<Integer>> operations = operations();
+
+    List<String> violations = new ArrayList<>();
+    for (String name : budgets.keySet()) {
+      if (!operations.containsKey(name)) {
+        violations.add("Budget for unknown operation '" + name + "'");
+      }
+    }
+    for (Map.Entry<String, ToIntFunction<Integer>> operation : operations.entrySet()) {
+      String name = operation.getKey();
+      Long budget = budgets.get(name);
+      long bytesPerOperation = measure(operation.getValue());
+      System.out.printf("%-60s %8d B/op (budget: %s)%n", name, bytesPerOperation, budget);
+      if (budget == null) {
+        violations.add("No budget for operation '" + name + "'");
+      } else if (bytesPerOperation > budget + budget * TOLERANCE_PERCENT / 100) {
+        violations.add(
+            "'%s' allocates %d B/op, which exceeds its budget of %d B/op by more than %d%%"
+                .formatted(name, bytesPerOperation, budget, TOLERANCE_PERCENT));
+      }
+    }
+
+    if (!violations.isEmpty()) {
+      violations.forEach(System.err::println);
+      System.exit(1);
+    }
+  }
+
+  private static Map<String, ToIntFunction<Integer>> operations() {
+    AlphanumericComparator comparator = AlphanumericComparator.getInstance();
+    String shortLeft = new String("file-2.doc");
+    String shortRight = new String("file-10.doc");
+    String longDigitsLeft = new String("export-20240101123456789012345-part-7");
+    String longDigitsRight = new String("export-20240101123456789012346-part-7");
+    String unicodeLeft = new String("Größenänderung-Übersicht 12 è");
+    String unicodeRight = new String("Größenänderung-Übersicht 12 ě");
+
+    Comparator<String> cachedComparator =
+        AlphanumericComparator.comparing(
+            Function.identity(), new AlphanumericComparator.KeyCache(1024));
+
+    Predicate<Integer> distinctByKey = StreamUtil.distinctByKey(Function.identity());
+    IntStream.range(0, 128).boxed().forEach(distinctByKey::test);
+
+    LongKeyedMap<String> longKeyedMap =
+        IntStream.range(0, 1024)
+            .boxed()
+            .collect(StreamUtil.toLongKeyedMap(i -> i * 1_000_003L, String::valueOf));
+    IntKeyedMap<String> intKeyedMap =
+        IntStream.range(0, 1024)
+            .boxed()
+            .collect(StreamUtil.toIntKeyedMap(i -> i * 1_009, String::valueOf));
+
+    Action noop = () -> {};
+    Action timedAction = noop.timed("allocation-budget-check");
+
+    Map<String, ToIntFunction<Integer>> operations = new LinkedHashMap<>();
+    operations.put(
+        "AlphanumericComparator.compare.short", i -> comparator.compare(shortLeft, shortRight));
+    operations.put(
+        "AlphanumericComparator.compare.longDigits",
+        i -> comparator.compare(longDigitsLeft, longDigitsRight));
+    operations.put(
+        "AlphanumericComparator.compare.unicode",
+        i -> comparator.compare(unicodeLeft, unicodeRight));
+    operations.put(
+        "AlphanumericComparator.comparing.cached",
+        i -> cachedComparator.compare(unicodeLeft, unicodeRight));
+    operations.put("Action.timed.execute", i -> execute(timedAction));
+    operations.put("StreamUtil.distinctByKey.duplicate", i -> distinctByKey.test(i & 127) ? 1 : 0);
+    operations.put("StreamUtil.toLongKeyedMap.get", i -> longKeyedMap.get(i * 1_000_003L).length());
+    operations.put("StreamUtil.toIntKeyedMap.get", i -> intKeyedMap.get(i * 1_009).length());
+    return operations;
+  }
+
+  private static int execute(Action action) {
+    try {
+      action.execute();
+      return 1;
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static long measure(ToIntFunction<Integer> operation) {
+    com.sun.management.ThreadMXBean threadMXBean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    Integer[] arguments = IntStream.range(0, 1024).boxed().toArray(Integer[]::new);
+    int result = 0;
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      result += operation.applyAsInt(arguments[i & 1023]);
+    }
+    long minimum = Long.MAX_VALUE;
+    for (int round = 0; round < ROUNDS; round++) {
+      long before = threadMXBean.getCurrentThreadAllocatedBytes();
+      for (int i = 0; i < MEASUREMENT_ITERATIONS; i++) {
+        result += operation.applyAsInt(arguments[i & 1023]);
+      }
+      long allocated = threadMXBean.getCurrentThreadAllocatedBytes() - before;
+      minimum = Math.min(minimum, allocated / MEASUREMENT_ITERATIONS);
+    }
+    sink = result;
+    return minimum;
+  }
+
+  private static Map<String, Long> loadBudgets() {
+    Properties properties = new Properties();
+    try (InputStream inputStream =
+        AllocationBudgetCheck.class.getResourceAsStream(BUDGETS_RESOURCE)) {
+      if (inputStream == null) {
+        throw new IllegalStateException("Resource " + BUDGETS_RESOURCE + " not found");
+      }
+      properties.load(inputStream);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    Map<String, Long> budgets = new LinkedHashMap<>();
+    for (String name : properties.stringPropertyNames()) {
+      budgets.put(name, Long.parseLong(properties.getProperty(name).trim()));
+    }
+    return budgets;
+  }
+}
@@ -0,0 +1,81 @@
+package de.cronn.commons.lang;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AlphanumericComparatorBenchmark {
+
+  public enum Input {
+    SHORT("file-2.doc", "file-10.doc"),
+    LONG_DIGITS("export-20240101123456789012345-part-7", "export-20240101123456789012346-part-7"),
+    UNICODE("Größenänderung-Übersicht 12 è", "Größenänderung-Übersicht 12 ě");
+
+    private final String left;
+    private final String right;
+
+    Input(String left, String right) {
+      this.left = left;
+      this.right = right;
+    }
+  }
+
+  @Param public Input input;
+
+  private final AlphanumericComparator comparator = AlphanumericComparator.getInstance();
+  private final Comparator<String> cachedComparator =
+      AlphanumericComparator.comparing(
+          Function.identity(), new AlphanumericComparator.KeyCache(1024));
+
+  private String left;
+  private String right;
+
+  @Setup
+  public void setUp() {
+    // copy the strings so that the benchmark cannot take any identity shortcuts
+    left = new String(input.left);
+    right = new String(input.right);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public int compare() {
+    return comparator.compare(left, right);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public int compare_4threads() {
+    return comparator.compare(left, right);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public int compare_cached() {
+    return cachedComparator.compare(left, right);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public int compare_cached_4threads() {
+    return cachedComparator.compare(left, right);
+  }
+}
@@ -0,0 +1,36 @@
+package de.cronn.commons.lang;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SetUtilsBenchmark {
+
+  private final String first = "first";
+  private final String second = "second";
+  private final String third = "third";
+
+  @Benchmark
+  public Set<String> orderedSet() {
+    return SetUtils.orderedSet(first, second, third);
+  }
+
+  @Benchmark
+  public Set<String> orderedSet_duplicates() {
+    return SetUtils.orderedSet(first, second, first, third, second);
+  }
+}
@@ -0,0 +1,122 @@
+package de.cronn.commons.lang;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StreamUtilBenchmark {
+
+  @Param({"10", "10000"})
+  public int size;
+
+  private List<String> elements;
+  private List<String> singleElement;
+  private long[] ids;
+  private Map<Long, String> elementsById;
+  private LongKeyedMap<String> elementsByLongKey;
+
+  @Setup
+  public void setUp() {
+    elements = IntStream.range(0, size).mapToObj(i -> "element-" + i).toList();
+    singleElement = List.of("element");
+    ids = LongStream.range(0, size).map(i -> i * 31 + 1_000_000_000L).toArray();
+    elementsById = elements.stream().collect(StreamUtil.toLinkedHashMap(this::id));
+    elementsByLongKey = elements.stream().collect(StreamUtil.toLongKeyedMap(this::id));
+  }
+
+  private long id(String element) {
+    return ids[Integer.parseInt(element, "element-".length(), element.length(), 10)];
+  }
+
+  @Benchmark
+  public Map<String, String> toLinkedHashMap() {
+    return elements.stream().collect(StreamUtil.toLinkedHashMap(Function.identity()));
+  }
+
+  @Benchmark
+  public Map<String, String> toLinkedHashMap_jdk() {
+    return elements.stream()
+        .collect(
+            Collectors.toMap(
+                Function.identity(),
+                Function.identity(),
+                (a, b) -> {
+                  throw new IllegalArgumentException("Duplicate key " + a);
+                },
+                LinkedHashMap::new));
+  }
+
+  @Benchmark
+  public LongKeyedMap<String> toLongKeyedMap() {
+    return elements.stream().collect(StreamUtil.toLongKeyedMap(this::id));
+  }
+
+  @Benchmark
+  public int lookup_linkedHashMap() {
+    int found = 0;
+    for (long id : ids) {
+      if (elementsById.get(id) != null) {
+        found++;
+      }
+    }
+    return found;
+  }
+
+  @Benchmark
+  public int lookup_longKeyedMap() {
+    int found = 0;
+    for (long id : ids) {
+      if (elementsByLongKey.get(id) != null) {
+        found++;
+      }
+    }
+    return found;
+  }
+
+  @Benchmark
+  public Map<Integer, List<String>> groupingBy() {
+    return elements.stream().collect(StreamUtil.groupingBy(String::length));
+  }
+
+  @Benchmark
+  public Map<Integer, List<String>> groupingBy_jdk() {
+    return elements.stream().collect(Collectors.groupingBy(String::length));
+  }
+
+  @Benchmark
+  public List<String> distinctByKey() {
+    return elements.stream().filter(StreamUtil.distinctByKey(String::length)).toList();
+  }
+
+  @Benchmark
+  public boolean hasDuplicates() {
+    return StreamUtil.hasDuplicates(elements.stream());
+  }
+
+  @Benchmark
+  public String toSingleElement() {
+    return singleElement.stream().collect(StreamUtil.toSingleElement());
+  }
+}
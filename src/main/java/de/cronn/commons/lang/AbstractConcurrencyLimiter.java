@@ -0,0 +1,103 @@
+package de.cronn.commons.lang;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Permit accounting shared by the {@link ConcurrencyLimiter} implementations. Subclasses provide
+ * the current limit and may adapt it on release.
+ *
+ * <p>Permits are acquired by a CAS on the in-flight counter. Callers that find the limit reached
+ * enqueue themselves and park; releasing a permit wakes the longest waiting caller, which passes
+ * the wake-up on if there is still capacity left, e.g. because the limit was raised in the
+ * meantime.
+ */
+abstract class AbstractConcurrencyLimiter implements ConcurrencyLimiter {
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final Queue<Thread> waiters = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger queueDepth = new AtomicInteger();
+
+  @Override
+  public void acquire() throws InterruptedException {
+    if (tryAcquire()) {
+      return;
+    }
+    Thread current = Thread.currentThread();
+    waiters.add(current);
+    queueDepth.incrementAndGet();
+    try {
+      while (!tryAcquire()) {
+        LockSupport.park(this);
+        if (Thread.interrupted()) {
+          throw new InterruptedException();
+        }
+      }
+    } finally {
+      waiters.remove(current);
+      queueDepth.decrementAndGet();
+      signalNext();
+    }
+  }
+
+  @Override
+  public void release(long latencyNanos, boolean success) {
+    int inFlightBeforeRelease = inFlight.getAndDecrement();
+    onRelease(latencyNanos, success, inFlightBeforeRelease);
+    signalNext();
+  }
+
+  @Override
+  public int inFlight() {
+    return inFlight.get();
+  }
+
+  @Override
+  public int queueDepth() {
+    return queueDepth.get();
+  }
+
+  /**
+   * Called after a permit was returned.
+   *
+   * @param latencyNanos the duration of the execution
+   * @param success whether the execution succeeded
+   * @param inFlight the number of permits held including the returned one
+   */
+  void onRelease(long latencyNanos, boolean success, int inFlight) {}
+
+  private boolean tryAcquire() {
+    while (true) {
+      int current = inFlight.get();
+      if (current >= limit()) {
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  private void signalNext() {
+    if (inFlight.get() < limit()) {
+      Thread next = waiters.peek();
+      if (next != null) {
+        LockSupport.unpark(next);
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName()
+        + "[limit="
+        + limit()
+        + ", inFlight="
+        + inFlight()
+        + ", queueDepth="
+        + queueDepth()
+        + "]";
+  }
+}
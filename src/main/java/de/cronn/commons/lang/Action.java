@@ -1,6 +1,10 @@
 package de.cronn.commons.lang;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 
 /**
@@ -42,4 +46,151 @@ public interface Action {
       return null;
     };
   }
+
+  /**
+   * Returns an action that executes this action until it completes successfully for the first time
+   * and does nothing afterwards.
+   *
+   * <p>Concurrent callers wait for the execution in progress and share its outcome. If the
+   * execution fails, all of them receive its exception and the next call executes this action
+   * again. After a successful execution, calls return without any locking.
+   *
+   * @return an action that executes this action at most once successfully
+   */
+  default Action once() {
+    return new OnceAction(this);
+  }
+
+  /**
+   * Returns an action that deduplicates concurrent executions of this action.
+   *
+   * <p>If the returned action is called while an execution is already in progress, the caller waits
+   * for that execution instead of starting its own, and then returns normally or throws the same
+   * exception. Calls made after the execution completed start a new execution.
+   *
+   * <pre>{@code
+   * Action refreshCache = this::refreshCache;
+   * Action sharedRefresh = refreshCache.singleFlight(); // N concurrent triggers, one refresh
+   * }</pre>
+   *
+   * @return an action that joins executions in progress
+   */
+  default Action singleFlight() {
+    return new SingleFlightAction(this);
+  }
+
+  /**
+   * Returns an action that executes this action at most once per {@code minInterval}, however often
+   * it is triggered.
+   *
+   * <p>Calls within {@code minInterval} after the start of the last successful execution return
+   * immediately without executing this action. Concurrent calls join the execution in progress as
+   * with {@link #singleFlight()}. A failed execution does not start a new interval.
+   *
+   * <p>So that the last trigger before a quiet period is not lost, calls that returned without
+   * their trigger being covered by an execution that started after it, because they were within the
+   * interval or joined an execution already in progress, cause one trailing execution on a virtual
+   * thread at the end of the interval. A failure of the trailing execution is passed to that
+   * thread's uncaught exception handler.
+   *
+   * @param minInterval the minimum time between the starts of two executions
+   * @return an action that coalesces triggers within {@code minInterval}
+   */
+  default Action coalescing(Duration minInterval) {
+    return new CoalescingAction(this, minInterval);
+  }
+
+  /**
+   * Returns an action that records the latency of every execution of this action in the {@link
+   * LatencyHistogram} registered under {@code name} in {@link ActionMetrics}.
+   *
+   * <p>Successful and failed executions are recorded alike. Recording is lock-free and does not
+   * allocate, so timed actions can be used on hot paths. While a JDK Flight Recorder recording has
+   * the {@code de.cronn.commons.lang.TimedAction} event enabled, each execution also creates and
+   * emits such an event.
+   *
+   * <pre>{@code
+   * Action store = this::storeOrders;
+   * Action timedStore = store.timed("store");
+   * // ...
+   * long p99Nanos = ActionMetrics.snapshot("store").p99Nanos();
+   * }</pre>
+   *
+   * @param name the metric name, shared by all timed actions with the same name
+   * @return an action that times this action
+   */
+  default Action timed(String name) {
+    return new TimedAction(this, name);
+  }
+
+  /**
+   * Returns an action that holds a permit of the given limiter while executing this action, waiting
+   * for a permit if the limiter's limit is reached.
+   *
+   * <p>The latency and outcome of each execution are reported to the limiter, so that an
+   * {@linkplain ConcurrencyLimiter#aimd(int, int, Duration) adaptive limiter} lowers its limit when
+   * the downstream slows down instead of overloading it further.
+   *
+   * @param limiter the limiter, possibly shared with other actions
+   * @return an action whose concurrent executions are limited by {@code limiter}
+   * @see ConcurrencyLimiter
+   */
+  default Action limited(ConcurrencyLimiter limiter) {
+    return new LimitedAction(this, limiter);
+  }
+
+  /**
+   * Executes this action asynchronously on the given executor.
+   *
+   * @param executor the executor to run this action on
+   * @return a future that completes when this action completed, or completes exceptionally with the
+   *     exception thrown by {@link #execute()}
+   * @see #toCompletableFuture()
+   */
+  default CompletableFuture<Void> toCompletableFuture(Executor executor) {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    executor.execute(
+        () -> {
+          try {
+            execute();
+            future.complete(null);
+          } catch (Throwable e) {
+            future.completeExceptionally(e);
+          }
+        });
+    return future;
+  }
+
+  /**
+   * Executes this action asynchronously on a new virtual thread.
+   *
+   * @return a future that completes when this action completed, or completes exceptionally with the
+   *     exception thrown by {@link #execute()}
+   */
+  default CompletableFuture<Void> toCompletableFuture() {
+    return toCompletableFuture(task -> Thread.ofVirtual().name("action").start(task));
+  }
+
+  /**
+   * Executes the given actions on virtual threads, with at most {@code maxParallelism} of them
+   * running at the same time, and waits until all of them completed.
+   *
+   * <p>If an action fails, actions that have not started yet are skipped and running actions are
+   * interrupted. The exception of the first failed action is rethrown once all running actions
+   * finished, with the exceptions of any other failed actions attached as {@linkplain
+   * Throwable#getSuppressed() suppressed} exceptions.
+   *
+   * <pre>{@code
+   * Action.runAll(List.of(this::refreshUsers, this::refreshGroups, this::refreshRoles), 2);
+   * }</pre>
+   *
+   * @param actions the actions to execute, started in iteration order
+   * @param maxParallelism the maximum number of concurrently running actions
+   * @throws Exception the exception of the first failed action
+   * @throws InterruptedException if the calling thread was interrupted while waiting; running
+   *     actions are interrupted in that case
+   */
+  static void runAll(Collection<? extends Action> actions, int maxParallelism) throws Exception {
+    ParallelActionRunner.runAll(actions, maxParallelism);
+  }
 }
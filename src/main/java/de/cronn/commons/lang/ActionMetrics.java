@@ -0,0 +1,72 @@
+package de.cronn.commons.lang;
+
+import java.util.Map;
+import java.util.SequencedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory registry of the latency histograms recorded by {@link Action#timed(String)}.
+ *
+ * <p>Each name maps to one {@link LatencyHistogram} that is shared by all timed actions with that
+ * name. In addition to the registry, each execution of a timed action emits a {@code
+ * de.cronn.commons.lang.TimedAction} JDK Flight Recorder event when recording is active.
+ *
+ * <pre>{@code
+ * Action store = this::storeOrders;
+ * Action timedStore = store.timed("store");
+ * // ...
+ * LatencyHistogram.Snapshot latencies = ActionMetrics.snapshot("store");
+ * long p99 = latencies.p99Nanos();
+ * }</pre>
+ */
+public final class ActionMetrics {
+
+  private static final ConcurrentMap<String, LatencyHistogram> REGISTRY = new ConcurrentHashMap<>();
+  private static final LatencyHistogram EMPTY = new LatencyHistogram();
+
+  private ActionMetrics() {}
+
+  /**
+   * Returns the histogram registered under the given name, creating it if necessary.
+   *
+   * @param name the metric name
+   * @return the histogram shared by all timed actions named {@code name}
+   */
+  public static LatencyHistogram histogram(String name) {
+    return REGISTRY.computeIfAbsent(name, key -> new LatencyHistogram());
+  }
+
+  /**
+   * Returns a snapshot of all registered histograms, sorted by name.
+   *
+   * @return a sequenced map from metric name to its current latency snapshot
+   */
+  public static SequencedMap<String, LatencyHistogram.Snapshot> snapshot() {
+    SequencedMap<String, LatencyHistogram.Snapshot> snapshot = new TreeMap<>();
+    for (Map.Entry<String, LatencyHistogram> entry : REGISTRY.entrySet()) {
+      snapshot.put(entry.getKey(), entry.getValue().snapshot());
+    }
+    return snapshot;
+  }
+
+  /**
+   * Returns a snapshot of the histogram registered under the given name.
+   *
+   * @param name the metric name
+   * @return the current latency snapshot, empty if nothing was recorded under {@code name}
+   */
+  public static LatencyHistogram.Snapshot snapshot(String name) {
+    LatencyHistogram histogram = REGISTRY.get(name);
+    return histogram != null ? histogram.snapshot() : EMPTY.snapshot();
+  }
+
+  /**
+   * Discards the values recorded in all registered histograms. Timed actions that already exist
+   * keep recording into their histograms.
+   */
+  public static void reset() {
+    REGISTRY.values().forEach(LatencyHistogram::reset);
+  }
+}
@@ -0,0 +1,63 @@
+package de.cronn.commons.lang;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementation of {@link ConcurrencyLimiter#aimd(int, int, Duration)}. The fractional limit is
+ * kept as the bits of a {@code double} in an {@link AtomicLong} and updated by CAS.
+ */
+final class AimdConcurrencyLimiter extends AbstractConcurrencyLimiter {
+
+  private static final double BACKOFF_RATIO = 0.9;
+
+  private final int maxLimit;
+  private final long latencyThresholdNanos;
+  private final AtomicLong limitBits;
+
+  AimdConcurrencyLimiter(int initialLimit, int maxLimit, Duration latencyThreshold) {
+    if (maxLimit < 1) {
+      throw new IllegalArgumentException("maxLimit must be positive but was " + maxLimit);
+    }
+    if (initialLimit < 1 || initialLimit > maxLimit) {
+      throw new IllegalArgumentException(
+          "initialLimit must be between 1 and " + maxLimit + " but was " + initialLimit);
+    }
+    if (latencyThreshold.isNegative() || latencyThreshold.isZero()) {
+      throw new IllegalArgumentException(
+          "latencyThreshold must be positive but was " + latencyThreshold);
+    }
+    this.maxLimit = maxLimit;
+    this.latencyThresholdNanos = latencyThreshold.toNanos();
+    this.limitBits = new AtomicLong(Double.doubleToRawLongBits(initialLimit));
+  }
+
+  @Override
+  public int limit() {
+    return (int) exactLimit();
+  }
+
+  private double exactLimit() {
+    return Double.longBitsToDouble(limitBits.get());
+  }
+
+  @Override
+  void onRelease(long latencyNanos, boolean success, int inFlight) {
+    while (true) {
+      long currentBits = limitBits.get();
+      double current = Double.longBitsToDouble(currentBits);
+      double updated;
+      if (!success || latencyNanos > latencyThresholdNanos) {
+        updated = Math.max(1, current * BACKOFF_RATIO);
+      } else if (2 * inFlight >= (int) current) {
+        updated = Math.min(maxLimit, current + 1 / current);
+      } else {
+        return;
+      }
+      if (updated == current
+          || limitBits.compareAndSet(currentBits, Double.doubleToRawLongBits(updated))) {
+        return;
+      }
+    }
+  }
+}
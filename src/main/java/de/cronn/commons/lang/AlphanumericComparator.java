@@ -2,8 +2,13 @@ package de.cronn.commons.lang;
 
 import java.math.BigDecimal;
 import java.text.Collator;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 
 /**
  * A {@link Comparator} for strings that sorts embedded numeric segments by their numeric value
@@ -19,6 +24,9 @@ import java.util.Locale;
  * #isBefore(String, String)}, {@link #isAfter(String, String)}, and {@link #isAfterOrEqual(String,
  * String)}.
  *
+ * <p>To sort the same strings repeatedly, e.g. the labels of a UI on every request, use {@link
+ * #comparing(Function, KeyCache)}: it tokenizes and collates each distinct string only once.
+ *
  * @see <a href="http://www.davekoelle.com/alphanum.html">Alphanum Algorithm</a>
  */
 // This implementation is based on https://github.com/benjaminsaff/alphanumeric-comparator-java
@@ -37,6 +45,40 @@ public final class AlphanumericComparator implements Comparator<String> {
     return INSTANCE;
   }
 
+  /**
+   * Returns a comparator that compares objects by the alphanumeric order of the string extracted by
+   * {@code keyExtractor}.
+   *
+   * @param keyExtractor extracts the string to compare; may return {@code null}
+   * @return a comparator for {@code T}
+   * @see #comparing(Function, KeyCache)
+   */
+  public static <T> Comparator<T> comparing(Function<? super T, String> keyExtractor) {
+    return Comparator.comparing(keyExtractor, INSTANCE);
+  }
+
+  /**
+   * Like {@link #comparing(Function)}, but looks up the pre-tokenized form of each string in the
+   * given cache, so that repeated comparisons of the same strings skip tokenization and collation.
+   * The cache can be shared by comparators and threads:
+   *
+   * <pre>{@code
+   * private static final AlphanumericComparator.KeyCache LABEL_KEYS =
+   *     new AlphanumericComparator.KeyCache(500_000);
+   *
+   * items.sort(AlphanumericComparator.comparing(Item::label, LABEL_KEYS));
+   * }</pre>
+   *
+   * @param keyExtractor extracts the string to compare; may return {@code null}
+   * @param cache the cache of pre-tokenized strings
+   * @return a comparator for {@code T} that orders like {@link #comparing(Function)}
+   */
+  public static <T> Comparator<T> comparing(
+      Function<? super T, String> keyExtractor, KeyCache cache) {
+    return (o1, o2) ->
+        cache.get(keyExtractor.apply(o1)).compareTo(cache.get(keyExtractor.apply(o2)));
+  }
+
   @Override
   public int compare(String s1, String s2) {
     if (isNullOrBlank(s1)) {
@@ -63,6 +105,57 @@ public final class AlphanumericComparator implements Comparator<String> {
     return Integer.compare(s1.length(), s2.length());
   }
 
+  /** Tokenizes and collates the given string for repeated comparisons. */
+  AlphanumericKey key(String string) {
+    if (isNullOrBlank(string)) {
+      return AlphanumericKey.BLANK;
+    }
+    String trimmed = string.trim();
+    byte[] collationBytes = new byte[6 * trimmed.length()];
+    int[] sliceEnds = new int[trimmed.length()];
+    boolean[] digits = null;
+    long[] numbers = null;
+    BigDecimal[] bigNumbers = null;
+    int byteCount = 0;
+    int sliceCount = 0;
+    int numberCount = 0;
+    for (int index = 0; index < trimmed.length(); sliceCount++) {
+      String slice = slice(trimmed, index);
+      index += slice.length();
+      byte[] sliceBytes = collator.getCollationKey(slice).toByteArray();
+      int maxByteCount = byteCount + 3 * sliceBytes.length / 2;
+      if (maxByteCount > collationBytes.length) {
+        collationBytes =
+            Arrays.copyOf(collationBytes, Math.max(2 * collationBytes.length, maxByteCount));
+      }
+      byteCount = AlphanumericKey.appendCollationBytes(sliceBytes, collationBytes, byteCount);
+      sliceEnds[sliceCount] = byteCount;
+      if (Character.isDigit(slice.charAt(0))) {
+        if (digits == null) {
+          digits = new boolean[trimmed.length()];
+          numbers = new long[trimmed.length()];
+        }
+        digits[sliceCount] = true;
+        if (slice.length() < MAX_LONG_STRING_SIZE) {
+          numbers[numberCount] = Long.parseLong(slice);
+        } else {
+          if (bigNumbers == null) {
+            bigNumbers = new BigDecimal[trimmed.length()];
+          }
+          bigNumbers[numberCount] = new BigDecimal(slice);
+        }
+        numberCount++;
+      }
+    }
+    return new AlphanumericKey(
+        Arrays.copyOf(collationBytes, byteCount),
+        Arrays.copyOf(sliceEnds, sliceCount),
+        digits != null ? Arrays.copyOf(digits, sliceCount) : null,
+        numbers != null ? Arrays.copyOf(numbers, numberCount) : null,
+        bigNumbers != null ? Arrays.copyOf(bigNumbers, numberCount) : null,
+        trimmed.length());
+  }
+
   private static boolean isNullOrBlank(String string) {
     return string == null || string.isBlank();
   }
@@ -114,4 +207,106 @@ public final class AlphanumericComparator implements Comparator<String> {
   public static boolean isAfter(String string, String stringToCompareWith) {
     return getInstance().compare(string, stringToCompareWith) > 0;
   }
+
+  /**
+   * A bounded, thread-safe cache of pre-tokenized strings for {@link #comparing(Function,
+   * KeyCache)}.
+   *
+   * <p>Entries are kept in two generations of at most half the maximum size each. New entries go
+   * into the young generation; when it is full, it becomes the old generation and the previous old
+   * generation is dropped. Entries found in the old generation are moved back into the young one,
+   * so strings that are compared again survive, while strings that are not used for two generations
+   * are evicted. Lookups do not lock.
+   *
+   * <p>{@link #hitRate()} and the hit and miss counts help to choose the maximum size: it should be
+   * large enough for the vocabulary of strings that is sorted repeatedly.
+   */
+  public static final class KeyCache {
+
+    private final int generationSize;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private volatile Map<String, AlphanumericKey> young = new ConcurrentHashMap<>();
+    private volatile Map<String, AlphanumericKey> old = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param maximumSize the maximum number of cached strings
+     */
+    public KeyCache(int maximumSize) {
+      if (maximumSize < 2) {
+        throw new IllegalArgumentException("maximumSize must be at least 2 but was " + maximumSize);
+      }
+      this.generationSize = maximumSize / 2;
+    }
+
+    /** Returns the number of lookups that found a cached key. */
+    public long hitCount() {
+      return hits.sum();
+    }
+
+    /** Returns the number of lookups that had to tokenize the string. */
+    public long missCount() {
+      return misses.sum();
+    }
+
+    /** Returns the ratio of hits to all lookups, or {@code 0} if there were no lookups yet. */
+    public double hitRate() {
+      long hitCount = hits.sum();
+      long lookupCount = hitCount + misses.sum();
+      return lookupCount == 0 ? 0 : (double) hitCount / lookupCount;
+    }
+
+    /** Returns the approximate number of cached strings. */
+    public int size() {
+      return young.size() + old.size();
+    }
+
+    /** Removes all cached strings and resets the statistics. */
+    public synchronized void clear() {
+      young = new ConcurrentHashMap<>();
+      old = new ConcurrentHashMap<>();
+      hits.reset();
+      misses.reset();
+    }
+
+    @Override
+    public String toString() {
+      return "KeyCache[size=%d, hits=%d, misses=%d, hitRate=%.3f]"
+          .formatted(size(), hitCount(), missCount(), hitRate());
+    }
+
+    AlphanumericKey get(String string) {
+      if (isNullOrBlank(string)) {
+        return AlphanumericKey.BLANK;
+      }
+      Map<String, AlphanumericKey> currentYoung = young;
+      AlphanumericKey key = currentYoung.get(string);
+      if (key != null) {
+        hits.increment();
+        return key;
+      }
+      key = old.get(string);
+      if (key != null) {
+        hits.increment();
+      } else {
+        misses.increment();
+        key = INSTANCE.key(string);
+      }
+      currentYoung.put(string, key);
+      if (currentYoung.size() >= generationSize) {
+        rotate(currentYoung);
+      }
+      return key;
+    }
+
+    private synchronized void rotate(Map<String, AlphanumericKey> fullYoung) {
+      if (young == fullYoung) {
+        old = fullYoung;
+        young = new ConcurrentHashMap<>();
+      }
+    }
+  }
 }
@@ -0,0 +1,164 @@
+package de.cronn.commons.lang;
+
+import java.math.BigDecimal;
+import java.text.CollationKey;
+import java.util.Arrays;
+
+/**
+ * A string pre-tokenized for {@link AlphanumericComparator}, as returned by {@link
+ * AlphanumericComparator#key(String)}.
+ *
+ * <p>Holds the collation bytes of all slices of the trimmed string in one array, and the numeric
+ * values of the digit slices, so that {@link #compareTo(AlphanumericKey)} neither re-tokenizes nor
+ * re-collates. Keys are meant to be cached, so no per-slice objects are kept: a 30 character label
+ * takes a few hundred bytes instead of one {@link CollationKey} per slice. Two keys compare like
+ * their strings compare with {@link AlphanumericComparator#compare(String, String)}. Instances are
+ * immutable.
+ */
+final class AlphanumericKey implements Comparable<AlphanumericKey> {
+
+  /** The key of {@code null} and blank strings, which sort before all other strings. */
+  static final AlphanumericKey BLANK =
+      new AlphanumericKey(new byte[0], new int[0], null, null, null, 0);
+
+  /** The concatenated collation bytes of all slices, see {@link #appendCollationBytes}. */
+  private final byte[] collationBytes;
+
+  /** The end offset of each slice in {@link #collationBytes}. */
+  private final int[] sliceEnds;
+
+  /** Whether each slice consists of digits; null if no slice does. */
+  private final boolean[] digits;
+
+  /** The value of each digit slice, in slice order, if it fits into a {@code long}. */
+  private final long[] numbers;
+
+  /** The value of each digit slice, in slice order, if it is too long for a {@code long}. */
+  private final BigDecimal[] bigNumbers;
+
+  /** The length of the trimmed string. */
+  private final int length;
+
+  AlphanumericKey(
+      byte[] collationBytes,
+      int[] sliceEnds,
+      boolean[] digits,
+      long[] numbers,
+      BigDecimal[] bigNumbers,
+      int length) {
+    this.collationBytes = collationBytes;
+    this.sliceEnds = sliceEnds;
+    this.digits = digits;
+    this.numbers = numbers;
+    this.bigNumbers = bigNumbers;
+    this.length = length;
+  }
+
+  /**
+   * Appends the {@link CollationKey#toByteArray() bytes of a collation key} to {@code target} at
+   * {@code offset} and returns the new end offset; {@code target} needs room for {@code 3 / 2}
+   * times the bytes of the key.
+   *
+   * <p>The key of a {@link java.text.RuleBasedCollator} is a sequence of 16-bit elements that
+   * compares element by element, and most elements are below 255. Each element below {@code 0xFF}
+   * is stored as a single byte, every other element as {@code 0xFF} followed by its two bytes. The
+   * encoding keeps the order, so the bytes of two slices compare unsigned like their keys.
+   */
+  static int appendCollationBytes(byte[] bytes, byte[] target, int offset) {
+    for (int i = 0; i + 1 < bytes.length; i += 2) {
+      if (bytes[i] == 0 && bytes[i + 1] != (byte) 0xFF) {
+        target[offset++] = bytes[i + 1];
+      } else {
+        target[offset++] = (byte) 0xFF;
+        target[offset++] = bytes[i];
+        target[offset++] = bytes[i + 1];
+      }
+    }
+    return offset;
+  }
+
+  @Override
+  public int compareTo(AlphanumericKey other) {
+    if (this == BLANK) {
+      return other == BLANK ? 0 : -1;
+    } else if (other == BLANK) {
+      return 1;
+    }
+    int sliceCount = Math.min(sliceEnds.length, other.sliceEnds.length);
+    int number = 0;
+    int otherNumber = 0;
+    for (int i = 0; i < sliceCount; i++) {
+      boolean isDigits = isDigits(i);
+      boolean otherIsDigits = other.isDigits(i);
+      int result =
+          isDigits && otherIsDigits
+              ? compareNumbers(number, other, otherNumber)
+              : compareCollated(other, i);
+      if (result != 0) {
+        return result;
+      }
+      if (isDigits) {
+        number++;
+      }
+      if (otherIsDigits) {
+        otherNumber++;
+      }
+    }
+    return Integer.compare(length, other.length);
+  }
+
+  /** Returns the approximate number of bytes used by this key, including its arrays. */
+  long sizeInBytes() {
+    long size = 40 + arraySize(collationBytes.length) + arraySize(4L * sliceEnds.length);
+    if (digits != null) {
+      size += arraySize(digits.length) + arraySize(8L * numbers.length);
+    }
+    if (bigNumbers != null) {
+      size += arraySize(4L * bigNumbers.length);
+      for (BigDecimal bigNumber : bigNumbers) {
+        if (bigNumber != null) {
+          size += 40 + arraySize(bigNumber.unscaledValue().bitLength() / 8 + 1);
+        }
+      }
+    }
+    return size;
+  }
+
+  private static long arraySize(long contentBytes) {
+    return 16 + (contentBytes + 7) / 8 * 8;
+  }
+
+  private boolean isDigits(int index) {
+    return digits != null && digits[index];
+  }
+
+  private int compareCollated(AlphanumericKey other, int index) {
+    return Arrays.compareUnsigned(
+        collationBytes,
+        sliceStart(index),
+        sliceEnds[index],
+        other.collationBytes,
+        other.sliceStart(index),
+        other.sliceEnds[index]);
+  }
+
+  private int sliceStart(int index) {
+    return index == 0 ? 0 : sliceEnds[index - 1];
+  }
+
+  private int compareNumbers(int number, AlphanumericKey other, int otherNumber) {
+    if (bigNumber(number) == null && other.bigNumber(otherNumber) == null) {
+      return Long.compare(numbers[number], other.numbers[otherNumber]);
+    }
+    return numericValue(number).compareTo(other.numericValue(otherNumber));
+  }
+
+  private BigDecimal bigNumber(int number) {
+    return bigNumbers != null ? bigNumbers[number] : null;
+  }
+
+  private BigDecimal numericValue(int number) {
+    BigDecimal bigNumber = bigNumber(number);
+    return bigNumber != null ? bigNumber : BigDecimal.valueOf(numbers[number]);
+  }
+}
@@ -0,0 +1,240 @@
+package de.cronn.commons.lang;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Collects elements submitted from many threads and hands them to a batch handler in groups, on a
+ * single dedicated worker thread.
+ *
+ * <p>A batch is cut as soon as {@code maxBatchSize} elements are queued, or when the oldest queued
+ * element has waited for {@code maxLatency}, whichever comes first. At most {@code capacity}
+ * elements are queued at any time; {@link #submit(Object)} blocks while the queue is full.
+ *
+ * <pre>{@code
+ * try (BatchingExecutor<AuditEntry> auditLog =
+ *     BatchingExecutor.create(repository::insertAll, 500, Duration.ofMillis(10), 10_000)) {
+ *   auditLog.submit(entry).join(); // completes once the batch containing the entry was written
+ * }
+ * }</pre>
+ *
+ * <p>Submission is lock-free apart from the capacity check, and the worker is only woken up when
+ * the queue becomes non-empty or a batch becomes full. Use {@link #forActions(int, Duration, int)}
+ * to group-execute {@link Action}s.
+ *
+ * @param <T> the element type
+ */
+public final class BatchingExecutor<T> implements AutoCloseable {
+
+  private record Submission<T>(T element, CompletableFuture<Void> future, long submittedNanos) {}
+
+  @FunctionalInterface
+  private interface BatchProcessor<T> {
+    void process(List<Submission<T>> batch);
+  }
+
+  private final BatchProcessor<T> processor;
+  private final int maxBatchSize;
+  private final long maxLatencyNanos;
+
+  private final Queue<Submission<T>> queue = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger queued = new AtomicInteger();
+  private final Semaphore capacity;
+  private final Thread worker;
+
+  private volatile boolean closed;
+  private volatile boolean terminated;
+
+  private BatchingExecutor(
+      BatchProcessor<T> processor, int maxBatchSize, Duration maxLatency, int capacity) {
+    if (maxBatchSize < 1) {
+      throw new IllegalArgumentException("maxBatchSize must be positive but was " + maxBatchSize);
+    }
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be positive but was " + capacity);
+    }
+    if (maxLatency.isNegative()) {
+      throw new IllegalArgumentException("maxLatency must not be negative but was " + maxLatency);
+    }
+    this.processor = processor;
+    this.maxBatchSize = maxBatchSize;
+    this.maxLatencyNanos = maxLatency.toNanos();
+    this.capacity = new Semaphore(capacity);
+    this.worker = Thread.ofPlatform().name("batching-executor").daemon().unstarted(this::work);
+  }
+
+  /**
+   * Creates an executor that passes batches of submitted elements to the given handler. The futures
+   * of all elements of a batch complete when the handler returns, or complete exceptionally with
+   * the exception thrown by the handler.
+   *
+   * @param batchHandler called on the worker thread with each batch, in submission order
+   * @param maxBatchSize the maximum number of elements per batch
+   * @param maxLatency the maximum time an element waits before its batch is cut
+   * @param capacity the maximum number of queued elements before submitters are blocked
+   * @return a started executor; must be closed by the caller
+   */
+  public static <T> BatchingExecutor<T> create(
+      Consumer<List<T>> batchHandler, int maxBatchSize, Duration maxLatency, int capacity) {
+    BatchProcessor<T> processor =
+        batch -> {
+          List<T> elements = new ArrayList<>(batch.size());
+          for (Submission<T> submission : batch) {
+            elements.add(submission.element());
+          }
+          try {
+            batchHandler.accept(elements);
+          } catch (Throwable e) {
+            batch.forEach(submission -> submission.future().completeExceptionally(e));
+            return;
+          }
+          batch.forEach(submission -> submission.future().complete(null));
+        };
+    return start(new BatchingExecutor<>(processor, maxBatchSize, maxLatency, capacity));
+  }
+
+  /**
+   * Creates an executor that executes submitted actions in batches on its worker thread. Each
+   * future completes when its action was executed, or completes exceptionally with the exception
+   * thrown by its action; a failing action does not affect the other actions of its batch.
+   *
+   * @param maxBatchSize the maximum number of actions per batch
+   * @param maxLatency the maximum time an action waits before its batch is cut
+   * @param capacity the maximum number of queued actions before submitters are blocked
+   * @return a started executor; must be closed by the caller
+   */
+  public static BatchingExecutor<Action> forActions(
+      int maxBatchSize, Duration maxLatency, int capacity) {
+    BatchProcessor<Action> processor =
+        batch -> {
+          for (Submission<Action> submission : batch) {
+            try {
+              submission.element().execute();
+              submission.future().complete(null);
+            } catch (Throwable e) {
+              submission.future().completeExceptionally(e);
+            }
+          }
+        };
+    return start(new BatchingExecutor<>(processor, maxBatchSize, maxLatency, capacity));
+  }
+
+  private static <T> BatchingExecutor<T> start(BatchingExecutor<T> executor) {
+    executor.worker.start();
+    return executor;
+  }
+
+  /**
+   * Queues the given element for the next batch, blocking while the queue is full.
+   *
+   * @param element the element to submit
+   * @return a future that completes when the batch containing {@code element} was processed
+   * @throws InterruptedException if interrupted while waiting for free capacity
+   * @throws RejectedExecutionException if this executor is closed
+   */
+  public CompletableFuture<Void> submit(T element) throws InterruptedException {
+    ensureOpen();
+    capacity.acquire();
+    Submission<T> submission =
+        new Submission<>(element, new CompletableFuture<>(), System.nanoTime());
+    queue.add(submission);
+    int size = queued.incrementAndGet();
+    if (size == 1 || size == maxBatchSize) {
+      LockSupport.unpark(worker);
+    }
+    if (terminated) {
+      rejectRemaining();
+    }
+    return submission.future();
+  }
+
+  /** Returns the number of elements that are queued but not yet handed to the batch handler. */
+  public int queueSize() {
+    return queued.get();
+  }
+
+  /**
+   * Stops accepting new elements, processes all queued elements and waits for the worker thread to
+   * finish.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    LockSupport.unpark(worker);
+    boolean interrupted = false;
+    while (worker.isAlive()) {
+      try {
+        worker.join();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void ensureOpen() {
+    if (closed) {
+      throw new RejectedExecutionException("BatchingExecutor is closed");
+    }
+  }
+
+  private void work() {
+    while (true) {
+      Submission<T> oldest = queue.peek();
+      if (oldest == null) {
+        if (closed) {
+          break;
+        }
+        LockSupport.park(this);
+        continue;
+      }
+      awaitBatch(oldest.submittedNanos() + maxLatencyNanos);
+      processor.process(pollBatch());
+    }
+    terminated = true;
+    rejectRemaining();
+  }
+
+  private void awaitBatch(long deadlineNanos) {
+    while (queued.get() < maxBatchSize && !closed) {
+      long remainingNanos = deadlineNanos - System.nanoTime();
+      if (remainingNanos <= 0) {
+        return;
+      }
+      LockSupport.parkNanos(this, remainingNanos);
+    }
+  }
+
+  private List<Submission<T>> pollBatch() {
+    List<Submission<T>> batch = new ArrayList<>(Math.min(maxBatchSize, queued.get()));
+    Submission<T> submission;
+    while (batch.size() < maxBatchSize && (submission = queue.poll()) != null) {
+      batch.add(submission);
+    }
+    queued.addAndGet(-batch.size());
+    capacity.release(batch.size());
+    return batch;
+  }
+
+  private void rejectRemaining() {
+    Submission<T> submission;
+    while ((submission = queue.poll()) != null) {
+      queued.decrementAndGet();
+      capacity.release();
+      submission
+          .future()
+          .completeExceptionally(new RejectedExecutionException("BatchingExecutor is closed"));
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package de.cronn.commons.lang;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementation of {@link Action#coalescing(Duration)}: executes the delegate at most once per
+ * interval. Calls within the interval after the start of the last successful execution return
+ * immediately, and concurrent calls join the execution in progress.
+ *
+ * <p>Every call counts as a trigger, and each successful execution covers the triggers counted
+ * before it started. Triggers that are not covered when their call returns, because they were
+ * suppressed or joined an execution that had already started, schedule a single trailing execution
+ * on a virtual thread at the end of the interval.
+ */
+final class CoalescingAction implements Action {
+
+  private final Action singleFlight;
+  private final long minIntervalNanos;
+  private final AtomicLong triggers = new AtomicLong();
+  private final AtomicBoolean trailingExecutionScheduled = new AtomicBoolean();
+
+  private volatile boolean executed;
+  private volatile long lastStartNanos;
+
+  /** The number of triggers counted before the start of the last successful execution. */
+  private volatile long coveredTriggers;
+
+  CoalescingAction(Action delegate, Duration minInterval) {
+    if (minInterval.isNegative()) {
+      throw new IllegalArgumentException("minInterval must not be negative but was " + minInterval);
+    }
+    this.minIntervalNanos = minInterval.toNanos();
+    this.singleFlight =
+        new SingleFlightAction(
+            () -> {
+              long startNanos = System.nanoTime();
+              if (!isWithinInterval(startNanos)) {
+                long triggersBeforeStart = triggers.get();
+                delegate.execute();
+                lastStartNanos = startNanos;
+                coveredTriggers = triggersBeforeStart;
+                executed = true;
+              }
+            });
+  }
+
+  @Override
+  public void execute() throws Exception {
+    triggers.incrementAndGet();
+    if (!isWithinInterval(System.nanoTime())) {
+      singleFlight.execute();
+    }
+    scheduleTrailingExecutionIfNeeded();
+  }
+
+  private boolean isWithinInterval(long nanoTime) {
+    return executed && nanoTime - lastStartNanos < minIntervalNanos;
+  }
+
+  private boolean hasUncoveredTriggers() {
+    return triggers.get() > coveredTriggers;
+  }
+
+  private void scheduleTrailingExecutionIfNeeded() {
+    if (hasUncoveredTriggers() && trailingExecutionScheduled.compareAndSet(false, true)) {
+      Thread.ofVirtual().name("coalescing").start(this::executeTrailing);
+    }
+  }
+
+  /**
+   * Waits for the end of the interval and executes the delegate if triggers are still uncovered.
+   * There is no caller to receive a failure, so it is passed to the thread's uncaught exception
+   * handler; the next trigger then executes the delegate again.
+   */
+  private void executeTrailing() {
+    try {
+      long delayNanos = lastStartNanos + minIntervalNanos - System.nanoTime();
+      if (delayNanos > 0) {
+        Thread.sleep(Duration.ofNanos(delayNanos));
+      }
+    } catch (InterruptedException e) {
+      trailingExecutionScheduled.set(false);
+      Thread.currentThread().interrupt();
+      return;
+    }
+    trailingExecutionScheduled.set(false);
+    if (!hasUncoveredTriggers()) {
+      return;
+    }
+    try {
+      singleFlight.execute();
+    } catch (Exception e) {
+      Thread thread = Thread.currentThread();
+      thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+      return;
+    }
+    scheduleTrailingExecutionIfNeeded();
+  }
+}
@@ -0,0 +1,76 @@
+package de.cronn.commons.lang;
+
+import java.time.Duration;
+
+/**
+ * Limits the number of concurrent executions of an operation, for example calls to a downstream
+ * system, to protect it from overload. Callers that exceed the limit wait until a permit becomes
+ * available.
+ *
+ * <p>Use {@link Action#limited(ConcurrencyLimiter)} to guard an action; a single limiter may be
+ * shared by any number of actions that call the same downstream system.
+ *
+ * <pre>{@code
+ * ConcurrencyLimiter limiter = ConcurrencyLimiter.aimd(10, 200, Duration.ofMillis(250));
+ * Action call = this::callInventoryService;
+ * Action limitedCall = call.limited(limiter);
+ * }</pre>
+ *
+ * <p>Acquiring a permit is lock-free while the limit is not reached; only callers that have to wait
+ * are queued.
+ */
+public interface ConcurrencyLimiter {
+
+  /**
+   * Returns a limiter that allows at most {@code maxConcurrency} concurrent executions.
+   *
+   * @param maxConcurrency the maximum number of concurrent executions
+   * @return a limiter with a fixed limit
+   */
+  static ConcurrencyLimiter fixed(int maxConcurrency) {
+    return new FixedConcurrencyLimiter(maxConcurrency);
+  }
+
+  /**
+   * Returns a limiter that adapts its limit to the observed latency, using additive increase and
+   * multiplicative decrease (AIMD).
+   *
+   * <p>Each execution that completes successfully within {@code latencyThreshold} while the limit
+   * is in use raises the limit by roughly one per round of {@code limit} executions. Each execution
+   * that fails or exceeds {@code latencyThreshold} lowers the limit by 10%. The limit stays between
+   * 1 and {@code maxLimit}.
+   *
+   * @param initialLimit the limit to start with
+   * @param maxLimit the upper bound of the limit
+   * @param latencyThreshold the latency above which the downstream is considered overloaded
+   * @return an adaptive limiter
+   */
+  static ConcurrencyLimiter aimd(int initialLimit, int maxLimit, Duration latencyThreshold) {
+    return new AimdConcurrencyLimiter(initialLimit, maxLimit, latencyThreshold);
+  }
+
+  /**
+   * Acquires a permit, waiting while the limit is reached. Every successful call must be followed
+   * by exactly one call to {@link #release(long, boolean)}.
+   *
+   * @throws InterruptedException if interrupted while waiting; no permit was acquired in that case
+   */
+  void acquire() throws InterruptedException;
+
+  /**
+   * Returns a permit acquired via {@link #acquire()} and reports the outcome of the execution.
+   *
+   * @param latencyNanos the duration of the execution in nanoseconds
+   * @param success {@code false} if the execution failed
+   */
+  void release(long latencyNanos, boolean success);
+
+  /** Returns the current limit. */
+  int limit();
+
+  /** Returns the number of permits currently held. */
+  int inFlight();
+
+  /** Returns the number of callers currently waiting for a permit. */
+  int queueDepth();
+}
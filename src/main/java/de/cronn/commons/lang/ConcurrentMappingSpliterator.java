@@ -0,0 +1,122 @@
+package de.cronn.commons.lang;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Spliterator backing {@link StreamUtil#mapConcurrent(java.util.stream.Stream, Function, int)}.
+ *
+ * <p>Keeps at most {@code maxConcurrency} mapper invocations in flight, each running on its own
+ * virtual thread. Results are handed out either in encounter order of the source or in completion
+ * order.
+ */
+final class ConcurrentMappingSpliterator<T, R> extends Spliterators.AbstractSpliterator<R> {
+
+  private final Iterator<T> source;
+  private final Function<? super T, ? extends R> mapper;
+  private final int maxConcurrency;
+  private final boolean ordered;
+
+  private final Deque<MappingTask> inFlight = new ArrayDeque<>();
+  private final BlockingQueue<MappingTask> completed = new LinkedBlockingQueue<>();
+
+  ConcurrentMappingSpliterator(
+      Iterator<T> source,
+      Function<? super T, ? extends R> mapper,
+      int maxConcurrency,
+      boolean ordered) {
+    super(Long.MAX_VALUE, ordered ? Spliterator.ORDERED : 0);
+    if (maxConcurrency < 1) {
+      throw new IllegalArgumentException(
+          "maxConcurrency must be positive but was " + maxConcurrency);
+    }
+    this.source = source;
+    this.mapper = mapper;
+    this.maxConcurrency = maxConcurrency;
+    this.ordered = ordered;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super R> action) {
+    fillWindow();
+    if (inFlight.isEmpty()) {
+      return false;
+    }
+    MappingTask task = ordered ? inFlight.peekFirst() : takeCompleted();
+    R result = await(task);
+    inFlight.remove(task);
+    action.accept(result);
+    return true;
+  }
+
+  /** Cancels all in-flight mapper invocations and interrupts their threads. */
+  void cancel() {
+    MappingTask task;
+    while ((task = inFlight.pollFirst()) != null) {
+      task.cancel(true);
+    }
+  }
+
+  private void fillWindow() {
+    while (inFlight.size() < maxConcurrency && source.hasNext()) {
+      T element = source.next();
+      MappingTask task = new MappingTask(element);
+      inFlight.addLast(task);
+      Thread.ofVirtual().name("mapConcurrent").start(task);
+    }
+  }
+
+  private MappingTask takeCompleted() {
+    try {
+      return completed.take();
+    } catch (InterruptedException e) {
+      cancel();
+      Thread.currentThread().interrupt();
+      throw new CancellationException("Interrupted while waiting for concurrent mapping");
+    }
+  }
+
+  private R await(Future<R> task) {
+    try {
+      return task.get();
+    } catch (InterruptedException e) {
+      cancel();
+      Thread.currentThread().interrupt();
+      throw new CancellationException("Interrupted while waiting for concurrent mapping");
+    } catch (ExecutionException e) {
+      cancel();
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      } else if (cause instanceof Error error) {
+        throw error;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  private final class MappingTask extends FutureTask<R> {
+
+    MappingTask(T element) {
+      super(() -> mapper.apply(element));
+    }
+
+    @Override
+    protected void done() {
+      if (!ordered && !isCancelled()) {
+        completed.add(this);
+      }
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package de.cronn.commons.lang;
+
+/** Implementation of {@link ConcurrencyLimiter#fixed(int)}. */
+final class FixedConcurrencyLimiter extends AbstractConcurrencyLimiter {
+
+  private final int limit;
+
+  FixedConcurrencyLimiter(int limit) {
+    if (limit < 1) {
+      throw new IllegalArgumentException("maxConcurrency must be positive but was " + limit);
+    }
+    this.limit = limit;
+  }
+
+  @Override
+  public int limit() {
+    return limit;
+  }
+}
@@ -0,0 +1,74 @@
+package de.cronn.commons.lang;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator that applies a stateful, sequential operation to the elements of a source, similar to
+ * a {@code java.util.stream.Gatherer} on Java 24 and later. Used by the Java 21 implementation of
+ * {@link StreamOperations}.
+ *
+ * <p>Each element is passed to the {@link Integrator}, which may emit any number of results. Once
+ * the source is exhausted, or the integrator returns {@code false}, the finisher may emit the
+ * remaining results. Splitting is done by {@link Spliterators.AbstractSpliterator}, which pulls
+ * batches from this spliterator sequentially, so the state is never accessed concurrently.
+ */
+final class GatheringSpliterator<T, R> extends Spliterators.AbstractSpliterator<R> {
+
+  @FunctionalInterface
+  interface Integrator<T, R> {
+    /**
+     * Integrates the given element, passing results to {@code downstream}.
+     *
+     * @return {@code false} if no further elements should be integrated
+     */
+    boolean integrate(T element, Consumer<? super R> downstream);
+  }
+
+  private final Spliterator<T> source;
+  private final Integrator<? super T, R> integrator;
+  private final Consumer<Consumer<? super R>> finisher;
+
+  private final List<R> pending = new ArrayList<>();
+  private int pendingIndex;
+  private boolean upstreamDone;
+  private boolean finished;
+
+  GatheringSpliterator(
+      Spliterator<T> source,
+      Integrator<? super T, R> integrator,
+      Consumer<Consumer<? super R>> finisher) {
+    super(Long.MAX_VALUE, source.characteristics() & Spliterator.ORDERED);
+    this.source = source;
+    this.integrator = integrator;
+    this.finisher = finisher;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super R> action) {
+    while (pendingIndex == pending.size()) {
+      pending.clear();
+      pendingIndex = 0;
+      if (finished) {
+        return false;
+      }
+      if (upstreamDone || !source.tryAdvance(this::integrate)) {
+        finished = true;
+        finisher.accept(pending::add);
+      }
+    }
+    R result = pending.get(pendingIndex);
+    pending.set(pendingIndex++, null);
+    action.accept(result);
+    return true;
+  }
+
+  private void integrate(T element) {
+    if (!integrator.integrate(element, pending::add)) {
+      upstreamDone = true;
+    }
+  }
+}
@@ -0,0 +1,400 @@
+package de.cronn.commons.lang;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A compressed set of {@code int} values, based on the container design of Roaring bitmaps.
+ *
+ * <p>Values are grouped by their high 16 bits. Each group is stored as a sorted array of up to 4096
+ * values (2 bytes per value), as a 8 KB bitmap, or, after {@link #runOptimize()}, as runs of
+ * consecutive values, whichever is smaller. Dense ranges of database IDs therefore take a fraction
+ * of a bit to a few bits per value instead of the tens of bytes of a {@code Set<Integer>}, and
+ * {@link #and(IntBitmapSet)}, {@link #or(IntBitmapSet)} and {@link #andNot(IntBitmapSet)} operate
+ * on whole containers, combining bitmaps 64 values at a time.
+ *
+ * <p>Iteration is in ascending order. The primitive methods {@link #add(int)}, {@link
+ * #contains(int)}, {@link #intIterator()} and {@link #intStream()} avoid boxing; the {@link
+ * java.util.Set} methods are provided for interoperability. The set must not be modified while it
+ * is iterated, and its iterators do not support {@link Iterator#remove()}; use {@link
+ * #removeIf(Predicate)} instead. Instances are not thread-safe.
+ *
+ * @see SetUtils#intSet(int...)
+ * @see StreamUtil#toIntSet(java.util.function.ToIntFunction)
+ */
+public final class IntBitmapSet extends AbstractSet<Integer> {
+
+  private char[] keys = new char[0];
+  private RoaringContainer[] containers = new RoaringContainer[0];
+  private int containerCount;
+  private long cardinality;
+
+  /** Creates an empty set. */
+  public IntBitmapSet() {}
+
+  /**
+   * Adds the given value.
+   *
+   * @param value the value to add
+   * @return {@code true} if the set did not contain the value before
+   */
+  public boolean add(int value) {
+    char key = key(value);
+    int index = Arrays.binarySearch(keys, 0, containerCount, key);
+    if (index < 0) {
+      insertContainer(-index - 1, key, RoaringContainer.of((char) value));
+      cardinality++;
+      return true;
+    }
+    RoaringContainer container = containers[index];
+    if (container.contains((char) value)) {
+      return false;
+    }
+    containers[index] = container.add((char) value);
+    cardinality++;
+    return true;
+  }
+
+  /**
+   * Removes the given value.
+   *
+   * @param value the value to remove
+   * @return {@code true} if the set contained the value
+   */
+  public boolean remove(int value) {
+    int index = Arrays.binarySearch(keys, 0, containerCount, key(value));
+    if (index < 0 || !containers[index].contains((char) value)) {
+      return false;
+    }
+    RoaringContainer container = containers[index].remove((char) value);
+    if (container.cardinality() == 0) {
+      removeContainer(index);
+    } else {
+      containers[index] = container;
+    }
+    cardinality--;
+    return true;
+  }
+
+  /**
+   * Returns whether this set contains the given value.
+   *
+   * @param value the value to look up
+   * @return {@code true} if this set contains {@code value}
+   */
+  public boolean contains(int value) {
+    int index = Arrays.binarySearch(keys, 0, containerCount, key(value));
+    return index >= 0 && containers[index].contains((char) value);
+  }
+
+  /**
+   * Returns the number of values in this set. Unlike {@link #size()}, the result is not capped at
+   * {@link Integer#MAX_VALUE}.
+   */
+  public long cardinality() {
+    return cardinality;
+  }
+
+  /**
+   * Returns a new set with the values contained in both this set and {@code other}.
+   *
+   * @param other the set to intersect with
+   * @return the intersection as a new set
+   */
+  public IntBitmapSet and(IntBitmapSet other) {
+    IntBitmapSet result = new IntBitmapSet();
+    int i = 0;
+    int j = 0;
+    while (i < containerCount && j < other.containerCount) {
+      int comparison = Character.compare(keys[i], other.keys[j]);
+      if (comparison < 0) {
+        i++;
+      } else if (comparison > 0) {
+        j++;
+      } else {
+        result.append(keys[i], RoaringContainer.and(containers[i], other.containers[j]));
+        i++;
+        j++;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns a new set with the values contained in this set or {@code other}.
+   *
+   * @param other the set to unite with
+   * @return the union as a new set
+   */
+  public IntBitmapSet or(IntBitmapSet other) {
+    IntBitmapSet result = new IntBitmapSet();
+    int i = 0;
+    int j = 0;
+    while (i < containerCount || j < other.containerCount) {
+      int comparison;
+      if (i == containerCount) {
+        comparison = 1;
+      } else if (j == other.containerCount) {
+        comparison = -1;
+      } else {
+        comparison = Character.compare(keys[i], other.keys[j]);
+      }
+      if (comparison < 0) {
+        result.append(keys[i], containers[i].copy());
+        i++;
+      } else if (comparison > 0) {
+        result.append(other.keys[j], other.containers[j].copy());
+        j++;
+      } else {
+        result.append(keys[i], RoaringContainer.or(containers[i], other.containers[j]));
+        i++;
+        j++;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns a new set with the values contained in this set but not in {@code other}.
+   *
+   * @param other the set of values to exclude
+   * @return the difference as a new set
+   */
+  public IntBitmapSet andNot(IntBitmapSet other) {
+    IntBitmapSet result = new IntBitmapSet();
+    int j = 0;
+    for (int i = 0; i < containerCount; i++) {
+      while (j < other.containerCount && other.keys[j] < keys[i]) {
+        j++;
+      }
+      if (j < other.containerCount && other.keys[j] == keys[i]) {
+        result.append(keys[i], RoaringContainer.andNot(containers[i], other.containers[j]));
+      } else {
+        result.append(keys[i], containers[i].copy());
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Converts the containers of this set to run-length encoding where that takes less memory, e.g.
+   * for contiguous ranges of values. Call this after a set was populated if it is kept around.
+   *
+   * @return {@code true} if any container was converted
+   */
+  public boolean runOptimize() {
+    boolean changed = false;
+    for (int i = 0; i < containerCount; i++) {
+      RoaringContainer optimized = containers[i].runOptimize();
+      changed |= optimized != containers[i];
+      containers[i] = optimized;
+    }
+    return changed;
+  }
+
+  /** Returns an iterator over the values of this set in ascending order. */
+  public PrimitiveIterator.OfInt intIterator() {
+    return new PrimitiveIterator.OfInt() {
+      private int index = -1;
+      private PrimitiveIterator.OfInt values;
+
+      @Override
+      public boolean hasNext() {
+        while (values == null || !values.hasNext()) {
+          if (index + 1 >= containerCount) {
+            return false;
+          }
+          values = containers[++index].iterator();
+        }
+        return true;
+      }
+
+      @Override
+      public int nextInt() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return value(keys[index], values.nextInt());
+      }
+    };
+  }
+
+  /** Returns a sequential stream of the values of this set in ascending order. */
+  public IntStream intStream() {
+    return StreamSupport.intStream(
+        Spliterators.spliterator(
+            intIterator(),
+            cardinality,
+            Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL),
+        false);
+  }
+
+  @Override
+  public int size() {
+    return (int) Math.min(cardinality, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return cardinality == 0;
+  }
+
+  @Override
+  public boolean contains(Object element) {
+    return element instanceof Integer value && contains(value.intValue());
+  }
+
+  @Override
+  public boolean add(Integer element) {
+    return add(element.intValue());
+  }
+
+  @Override
+  public boolean remove(Object element) {
+    return element instanceof Integer value && remove(value.intValue());
+  }
+
+  @Override
+  public boolean removeAll(Collection<?> elements) {
+    boolean changed = false;
+    for (Object element : elements) {
+      changed |= remove(element);
+    }
+    return changed;
+  }
+
+  @Override
+  public boolean retainAll(Collection<?> elements) {
+    return removeMatching(value -> !elements.contains(value));
+  }
+
+  @Override
+  public boolean removeIf(Predicate<? super Integer> filter) {
+    return removeMatching(filter::test);
+  }
+
+  private boolean removeMatching(IntPredicate filter) {
+    IntBitmapSet removed = new IntBitmapSet();
+    for (PrimitiveIterator.OfInt iterator = intIterator(); iterator.hasNext(); ) {
+      int value = iterator.nextInt();
+      if (filter.test(value)) {
+        removed.add(value);
+      }
+    }
+    if (removed.isEmpty()) {
+      return false;
+    }
+    IntBitmapSet remaining = andNot(removed);
+    keys = remaining.keys;
+    containers = remaining.containers;
+    containerCount = remaining.containerCount;
+    cardinality = remaining.cardinality;
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    keys = new char[0];
+    containers = new RoaringContainer[0];
+    containerCount = 0;
+    cardinality = 0;
+  }
+
+  @Override
+  public Iterator<Integer> iterator() {
+    PrimitiveIterator.OfInt iterator = intIterator();
+    return new Iterator<>() {
+      @Override
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+
+      @Override
+      public Integer next() {
+        return iterator.nextInt();
+      }
+    };
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof IntBitmapSet otherSet)) {
+      return super.equals(other);
+    }
+    if (cardinality != otherSet.cardinality) {
+      return false;
+    }
+    PrimitiveIterator.OfInt iterator = intIterator();
+    PrimitiveIterator.OfInt otherIterator = otherSet.intIterator();
+    while (iterator.hasNext()) {
+      if (iterator.nextInt() != otherIterator.nextInt()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    int hashCode = 0;
+    for (PrimitiveIterator.OfInt iterator = intIterator(); iterator.hasNext(); ) {
+      hashCode += iterator.nextInt();
+    }
+    return hashCode;
+  }
+
+  /** Returns the approximate number of bytes used by the containers of this set. */
+  long sizeInBytes() {
+    long size = 16 + 2L * keys.length + 4L * containers.length;
+    for (int i = 0; i < containerCount; i++) {
+      size += containers[i].sizeInBytes();
+    }
+    return size;
+  }
+
+  private void append(char key, RoaringContainer container) {
+    if (container.cardinality() > 0) {
+      insertContainer(containerCount, key, container);
+      cardinality += container.cardinality();
+    }
+  }
+
+  private void insertContainer(int index, char key, RoaringContainer container) {
+    if (containerCount == keys.length) {
+      int capacity = Math.max(4, 2 * containerCount);
+      keys = Arrays.copyOf(keys, capacity);
+      containers = Arrays.copyOf(containers, capacity);
+    }
+    System.arraycopy(keys, index, keys, index + 1, containerCount - index);
+    System.arraycopy(containers, index, containers, index + 1, containerCount - index);
+    keys[index] = key;
+    containers[index] = Objects.requireNonNull(container);
+    containerCount++;
+  }
+
+  private void removeContainer(int index) {
+    System.arraycopy(keys, index + 1, keys, index, containerCount - index - 1);
+    System.arraycopy(containers, index + 1, containers, index, containerCount - index - 1);
+    containers[--containerCount] = null;
+  }
+
+  /** Flips the sign bit so that keys in unsigned order correspond to values in signed order. */
+  private static char key(int value) {
+    return (char) ((value ^ Integer.MIN_VALUE) >>> 16);
+  }
+
+  private static int value(char key, int low) {
+    return ((key << 16) | low) ^ Integer.MIN_VALUE;
+  }
+}
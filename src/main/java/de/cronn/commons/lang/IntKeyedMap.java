@@ -0,0 +1,259 @@
+package de.cronn.commons.lang;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.stream.IntStream;
+
+/**
+ * A compact map from {@code int} keys to values that preserves insertion order, as returned by
+ * {@link StreamUtil#toIntKeyedMap(java.util.function.ToIntFunction)}.
+ *
+ * <p>Keys and values are stored in two parallel arrays in insertion order, and lookups go through
+ * an open-addressing hash table of indices into these arrays. Neither keys nor entries are boxed,
+ * so {@link #get(int)} does not allocate. Entries cannot be removed. Instances are not thread-safe.
+ *
+ * <p>{@link LongKeyedMap} is a deliberate copy of this class for the other primitive key type.
+ * Sharing the probing and resize code would require boxed keys or an abstraction over the key
+ * arrays, which would defeat the allocation-free lookups; changes to one class must be made to
+ * both.
+ *
+ * @param <V> the value type
+ * @see LongKeyedMap
+ */
+public final class IntKeyedMap<V> {
+
+  /** Receives the entries of a {@link IntKeyedMap}. */
+  @FunctionalInterface
+  public interface EntryConsumer<V> {
+    void accept(int key, V value);
+  }
+
+  private int[] keys;
+  private Object[] values;
+
+  /** Index into {@link #keys} plus one per slot; 0 marks an empty slot. */
+  private int[] table;
+
+  private int size;
+
+  /** Creates an empty map. */
+  public IntKeyedMap() {
+    this(8);
+  }
+
+  /**
+   * Creates an empty map that can hold the given number of entries without resizing.
+   *
+   * @param expectedSize the expected number of entries
+   */
+  public IntKeyedMap(int expectedSize) {
+    if (expectedSize < 0) {
+      throw new IllegalArgumentException(
+          "expectedSize must not be negative but was " + expectedSize);
+    }
+    keys = new int[Math.max(expectedSize, 1)];
+    values = new Object[keys.length];
+    table = new int[tableSizeFor(keys.length)];
+  }
+
+  /**
+   * Returns the value mapped to the given key.
+   *
+   * @param key the key to look up
+   * @return the value, or {@code null} if the map contains no entry for {@code key}
+   */
+  public V get(int key) {
+    int index = indexOf(key);
+    return index >= 0 ? valueAt(index) : null;
+  }
+
+  /**
+   * Returns the value mapped to the given key, or the given default value.
+   *
+   * @param key the key to look up
+   * @param defaultValue the value to return if the map contains no entry for {@code key}
+   * @return the mapped value or {@code defaultValue}
+   */
+  public V getOrDefault(int key, V defaultValue) {
+    int index = indexOf(key);
+    return index >= 0 ? valueAt(index) : defaultValue;
+  }
+
+  /**
+   * Returns whether this map contains an entry for the given key.
+   *
+   * @param key the key to look up
+   * @return {@code true} if the map contains an entry for {@code key}
+   */
+  public boolean containsKey(int key) {
+    return indexOf(key) >= 0;
+  }
+
+  /**
+   * Maps the given key to the given value. A new key is appended to the iteration order; the value
+   * of an existing key is replaced in place.
+   *
+   * @param key the key
+   * @param value the value, may be {@code null}
+   * @return the previous value of {@code key}, or {@code null} if there was none
+   */
+  public V put(int key, V value) {
+    int existing = putIfAbsent(key, value);
+    if (existing < 0) {
+      return null;
+    }
+    V previous = valueAt(existing);
+    values[existing] = value;
+    return previous;
+  }
+
+  /** Returns the number of entries. */
+  public int size() {
+    return size;
+  }
+
+  /** Returns {@code true} if this map contains no entries. */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Calls the given consumer for each entry in insertion order.
+   *
+   * @param consumer the consumer of the entries
+   */
+  public void forEach(EntryConsumer<? super V> consumer) {
+    for (int i = 0; i < size; i++) {
+      consumer.accept(keys[i], valueAt(i));
+    }
+  }
+
+  /** Returns the keys in insertion order. */
+  public IntStream keys() {
+    return Arrays.stream(keys, 0, size);
+  }
+
+  /** Returns an unmodifiable view of the values in insertion order. */
+  public List<V> values() {
+    return new AbstractList<>() {
+      @Override
+      public V get(int index) {
+        Objects.checkIndex(index, size);
+        return valueAt(index);
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof IntKeyedMap<?> otherMap) || size != otherMap.size) {
+      return false;
+    }
+    for (int i = 0; i < size; i++) {
+      int otherIndex = otherMap.indexOf(keys[i]);
+      if (otherIndex < 0 || !Objects.equals(values[i], otherMap.values[otherIndex])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    int hashCode = 0;
+    for (int i = 0; i < size; i++) {
+      hashCode += Integer.hashCode(keys[i]) ^ Objects.hashCode(values[i]);
+    }
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    StringJoiner joiner = new StringJoiner(", ", "{", "}");
+    forEach((key, value) -> joiner.add(key + "=" + value));
+    return joiner.toString();
+  }
+
+  /**
+   * Appends the given entry unless the key is already present.
+   *
+   * @return -1 if the entry was appended, otherwise the index of the existing entry
+   */
+  int putIfAbsent(int key, V value) {
+    int mask = table.length - 1;
+    int slot = hash(key) & mask;
+    while (table[slot] != 0) {
+      int index = table[slot] - 1;
+      if (keys[index] == key) {
+        return index;
+      }
+      slot = (slot + 1) & mask;
+    }
+    if (size == keys.length) {
+      grow();
+      return putIfAbsent(key, value);
+    }
+    keys[size] = key;
+    values[size] = value;
+    table[slot] = ++size;
+    return -1;
+  }
+
+  int keyAt(int index) {
+    return keys[index];
+  }
+
+  @SuppressWarnings("unchecked")
+  V valueAt(int index) {
+    return (V) values[index];
+  }
+
+  private int indexOf(int key) {
+    int mask = table.length - 1;
+    int slot = hash(key) & mask;
+    while (table[slot] != 0) {
+      int index = table[slot] - 1;
+      if (keys[index] == key) {
+        return index;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  private void grow() {
+    int capacity = keys.length * 2;
+    keys = Arrays.copyOf(keys, capacity);
+    values = Arrays.copyOf(values, capacity);
+    table = new int[tableSizeFor(capacity)];
+    int mask = table.length - 1;
+    for (int i = 0; i < size; i++) {
+      int slot = hash(keys[i]) & mask;
+      while (table[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      table[slot] = i + 1;
+    }
+  }
+
+  /** Returns a power of two that keeps the load factor at or below 0.5. */
+  private static int tableSizeFor(int capacity) {
+    return Integer.highestOneBit(capacity * 2 - 1) * 2;
+  }
+
+  private static int hash(int key) {
+    int hash = key * 0x9E37_79B9;
+    return hash ^ (hash >>> 16);
+  }
+}
@@ -0,0 +1,235 @@
+package de.cronn.commons.lang;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Routes the elements of a stream to a fixed number of worker threads by the hash of their key, as
+ * done by {@link StreamUtil#partitionByKey(java.util.stream.Stream, Function, int, Consumer)}.
+ *
+ * <p>Each lane owns a bounded single-producer/single-consumer ring buffer. The calling thread is
+ * the only producer; it blocks while the target lane is full. Idle workers and a blocked producer
+ * spin briefly and then park until the other side signals progress. A poison pill ends each lane
+ * once the source is exhausted. If a consumer or the source fails, all lanes are aborted and the
+ * remaining elements are discarded.
+ */
+final class KeyPartitioner<T, K> {
+
+  static final int LANE_CAPACITY = 1024;
+
+  private static final int SPIN_LIMIT = 128;
+  private static final Object POISON_PILL = new Object();
+
+  private final Function<? super T, ? extends K> keyExtractor;
+  private final Consumer<? super T> consumer;
+  private final List<Lane> lanes;
+  private final Thread producer = Thread.currentThread();
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+  private volatile boolean aborted;
+
+  KeyPartitioner(
+      Function<? super T, ? extends K> keyExtractor,
+      int laneCount,
+      int laneCapacity,
+      Consumer<? super T> consumer) {
+    if (laneCount < 1) {
+      throw new IllegalArgumentException("lanes must be positive but was " + laneCount);
+    }
+    this.keyExtractor = keyExtractor;
+    this.consumer = consumer;
+    this.lanes = new ArrayList<>(laneCount);
+    for (int i = 0; i < laneCount; i++) {
+      lanes.add(new Lane(laneCapacity));
+    }
+  }
+
+  /** Feeds all elements of the given source to the lanes and waits until they are consumed. */
+  void run(Spliterator<T> source) {
+    for (int i = 0; i < lanes.size(); i++) {
+      Lane lane = lanes.get(i);
+      lane.thread = Thread.ofPlatform().name("partitionByKey-" + i).start(lane);
+    }
+    try {
+      while (!aborted && source.tryAdvance(this::route)) {
+        // routed
+      }
+      for (Lane lane : lanes) {
+        if (!aborted) {
+          lane.offer(POISON_PILL);
+        }
+      }
+    } catch (RuntimeException | Error e) {
+      abort(e);
+    }
+    awaitWorkers();
+    Throwable cause = failure.get();
+    if (cause instanceof RuntimeException runtimeException) {
+      throw runtimeException;
+    } else if (cause instanceof Error error) {
+      throw error;
+    } else if (cause != null) {
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  static int laneIndex(Object key, int laneCount) {
+    int hash = Objects.hashCode(key);
+    return Math.floorMod(hash ^ (hash >>> 16), laneCount);
+  }
+
+  private void route(T element) {
+    K key = keyExtractor.apply(element);
+    lanes.get(laneIndex(key, lanes.size())).offer(element);
+  }
+
+  private void abort(Throwable cause) {
+    if (!failure.compareAndSet(null, cause) && failure.get() != cause) {
+      failure.get().addSuppressed(cause);
+    }
+    aborted = true;
+    LockSupport.unpark(producer);
+    for (Lane lane : lanes) {
+      lane.wakeUp();
+    }
+  }
+
+  private void awaitWorkers() {
+    boolean interrupted = false;
+    for (Lane lane : lanes) {
+      while (lane.thread.isAlive()) {
+        try {
+          lane.thread.join();
+        } catch (InterruptedException e) {
+          interrupted = true;
+          if (!aborted) {
+            abort(new CancellationException("Interrupted while waiting for partitionByKey lanes"));
+          }
+          lane.thread.interrupt();
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private final class Lane implements Runnable {
+
+    private final Object[] buffer;
+    private final int mask;
+
+    /** Index of the next element to consume; written by the worker only. */
+    private volatile long head;
+
+    /** Index of the next free slot; written by the producer only. */
+    private volatile long tail;
+
+    private volatile boolean workerParked;
+    private volatile boolean producerParked;
+    private volatile Thread thread;
+
+    /** The producer's last observed value of {@link #head}, to avoid a volatile read per offer. */
+    private long cachedHead;
+
+    Lane(int capacity) {
+      this.buffer = new Object[Integer.highestOneBit(capacity * 2 - 1)];
+      this.mask = buffer.length - 1;
+    }
+
+    void offer(Object element) {
+      long currentTail = tail;
+      if (currentTail - cachedHead == buffer.length && !awaitCapacity(currentTail)) {
+        return;
+      }
+      buffer[(int) currentTail & mask] = element;
+      tail = currentTail + 1;
+      if (workerParked) {
+        LockSupport.unpark(thread);
+      }
+    }
+
+    /** Returns {@code false} if the lanes were aborted while waiting. */
+    private boolean awaitCapacity(long currentTail) {
+      int spins = 0;
+      while (currentTail - (cachedHead = head) == buffer.length) {
+        if (aborted) {
+          return false;
+        }
+        if (spins < SPIN_LIMIT) {
+          spins++;
+          Thread.onSpinWait();
+          continue;
+        }
+        producerParked = true;
+        if (currentTail - head == buffer.length && !aborted) {
+          LockSupport.park(this);
+          if (Thread.currentThread().isInterrupted()) {
+            producerParked = false;
+            throw new CancellationException("Interrupted while waiting for partitionByKey lanes");
+          }
+        }
+        producerParked = false;
+      }
+      return true;
+    }
+
+    void wakeUp() {
+      Thread worker = thread;
+      if (worker != null) {
+        LockSupport.unpark(worker);
+      }
+    }
+
+    @Override
+    public void run() {
+      while (!aborted) {
+        long currentHead = head;
+        if (currentHead == tail) {
+          awaitElements(currentHead);
+          continue;
+        }
+        int slot = (int) currentHead & mask;
+        Object element = buffer[slot];
+        buffer[slot] = null;
+        head = currentHead + 1;
+        if (producerParked) {
+          LockSupport.unpark(producer);
+        }
+        if (element == POISON_PILL) {
+          return;
+        }
+        try {
+          consumer.accept(cast(element));
+        } catch (RuntimeException | Error e) {
+          abort(e);
+        }
+      }
+    }
+
+    private void awaitElements(long currentHead) {
+      for (int spins = 0; spins < SPIN_LIMIT; spins++) {
+        if (currentHead != tail || aborted) {
+          return;
+        }
+        Thread.onSpinWait();
+      }
+      workerParked = true;
+      if (currentHead == tail && !aborted) {
+        LockSupport.park(this);
+      }
+      workerParked = false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T cast(Object element) {
+      return (T) element;
+    }
+  }
+}
@@ -0,0 +1,222 @@
+package de.cronn.commons.lang;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of latencies in nanoseconds with a bounded relative error, in the spirit of
+ * HdrHistogram.
+ *
+ * <p>Values below 32 ns are counted exactly. Larger values fall into logarithmically sized buckets,
+ * 32 per power of two, so that the relative error of every reported value is at most about 3%.
+ * Values above {@link #MAX_TRACKABLE_NANOS one hour} are counted in the highest bucket, so their
+ * percentiles are reported as about one hour; the mean and maximum remain exact.
+ *
+ * <p>A histogram starts with a single array of about 1200 bucket counters. When threads contend on
+ * it, further arrays are added, up to one per two processors and at most 16, and threads record to
+ * different arrays. Apart from adding an array, recording never allocates.
+ *
+ * <p>Named histograms are typically obtained from {@link ActionMetrics} via {@link
+ * Action#timed(String)}, but instances can also be used stand-alone.
+ */
+public final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+  /** The largest value that is counted in its own bucket; larger values are clamped to it. */
+  static final long MAX_TRACKABLE_NANOS = TimeUnit.HOURS.toNanos(1);
+
+  private static final int BUCKET_COUNT = bucketIndex(MAX_TRACKABLE_NANOS) + 1;
+  private static final int MAX_STRIPE_COUNT =
+      Math.min(16, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+  private final AtomicReference<AtomicLongArray[]> stripes =
+      new AtomicReference<>(new AtomicLongArray[] {new AtomicLongArray(BUCKET_COUNT)});
+  private final LongAdder totalNanos = new LongAdder();
+  private final AtomicLong maxNanos = new AtomicLong();
+
+  /** Creates an empty histogram. */
+  public LatencyHistogram() {}
+
+  /**
+   * Records a single latency. Negative values are recorded as zero.
+   *
+   * @param nanos the latency in nanoseconds
+   */
+  public void record(long nanos) {
+    long value = Math.max(0, nanos);
+    int bucket = bucketIndex(Math.min(value, MAX_TRACKABLE_NANOS));
+    AtomicLongArray[] currentStripes = stripes.get();
+    AtomicLongArray stripe = currentStripes[stripeIndex(currentStripes.length)];
+    long count = stripe.get(bucket);
+    if (!stripe.compareAndSet(bucket, count, count + 1)) {
+      stripe.incrementAndGet(bucket);
+      addStripes(currentStripes);
+    }
+    totalNanos.add(value);
+    long max = maxNanos.get();
+    while (value > max && !maxNanos.weakCompareAndSetVolatile(max, value)) {
+      max = maxNanos.get();
+    }
+  }
+
+  /**
+   * Records a single latency.
+   *
+   * @param duration the latency
+   */
+  public void record(Duration duration) {
+    record(duration.toNanos());
+  }
+
+  /**
+   * Discards all recorded values. Values recorded concurrently with the reset may or may not be
+   * retained.
+   */
+  public void reset() {
+    for (AtomicLongArray stripe : stripes.get()) {
+      for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+        stripe.set(bucket, 0);
+      }
+    }
+    totalNanos.reset();
+    maxNanos.set(0);
+  }
+
+  /** Returns a point-in-time snapshot of this histogram. */
+  public Snapshot snapshot() {
+    long[] counts = new long[BUCKET_COUNT];
+    long count = 0;
+    for (AtomicLongArray stripe : stripes.get()) {
+      for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+        long bucketCount = stripe.get(bucket);
+        counts[bucket] += bucketCount;
+        count += bucketCount;
+      }
+    }
+    return new Snapshot(counts, count, totalNanos.sum(), maxNanos.get());
+  }
+
+  /** Returns the number of bucket counter arrays in use. */
+  int stripeCount() {
+    return stripes.get().length;
+  }
+
+  private static int stripeIndex(int stripeCount) {
+    long threadId = Thread.currentThread().threadId();
+    int hash = (int) (threadId ^ (threadId >>> 32)) * 0x9E3779B9;
+    return (hash >>> 16) & (stripeCount - 1);
+  }
+
+  /** Doubles the number of stripes after contention, unless another thread already did. */
+  private void addStripes(AtomicLongArray[] currentStripes) {
+    if (currentStripes.length < MAX_STRIPE_COUNT) {
+      AtomicLongArray[] newStripes = Arrays.copyOf(currentStripes, 2 * currentStripes.length);
+      for (int i = currentStripes.length; i < newStripes.length; i++) {
+        newStripes[i] = new AtomicLongArray(BUCKET_COUNT);
+      }
+      stripes.compareAndSet(currentStripes, newStripes);
+    }
+  }
+
+  static int bucketIndex(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+    int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+    return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+  }
+
+  static long highestValueInBucket(int bucketIndex) {
+    if (bucketIndex < 2 * SUB_BUCKET_COUNT) {
+      return bucketIndex;
+    }
+    int shift = (bucketIndex >>> SUB_BUCKET_BITS) - 1;
+    long mantissa = bucketIndex - ((long) shift << SUB_BUCKET_BITS);
+    return ((mantissa + 1) << shift) - 1;
+  }
+
+  /** Point-in-time view of a {@link LatencyHistogram}. */
+  public static final class Snapshot {
+    private final long[] counts;
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+
+    private Snapshot(long[] counts, long count, long totalNanos, long maxNanos) {
+      this.counts = counts;
+      this.count = count;
+      this.totalNanos = totalNanos;
+      this.maxNanos = maxNanos;
+    }
+
+    /** Returns the number of recorded values. */
+    public long count() {
+      return count;
+    }
+
+    /** Returns the exact mean of the recorded values in nanoseconds, or 0 if empty. */
+    public double meanNanos() {
+      return count == 0 ? 0 : (double) totalNanos / count;
+    }
+
+    /** Returns the exact maximum of the recorded values in nanoseconds, or 0 if empty. */
+    public long maxNanos() {
+      return maxNanos;
+    }
+
+    /**
+     * Returns the value at the given percentile in nanoseconds, i.e. the smallest value such that
+     * at least {@code percentile} percent of the recorded values are less than or equal to it,
+     * within the precision of the histogram.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the value at the percentile, or 0 if no values were recorded
+     */
+    public long percentileNanos(double percentile) {
+      if (percentile < 0 || percentile > 100) {
+        throw new IllegalArgumentException(
+            "percentile must be between 0 and 100 but was " + percentile);
+      }
+      if (count == 0) {
+        return 0;
+      }
+      long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+      long seen = 0;
+      for (int bucket = 0; bucket < counts.length; bucket++) {
+        seen += counts[bucket];
+        if (seen >= rank) {
+          return Math.min(highestValueInBucket(bucket), maxNanos);
+        }
+      }
+      return maxNanos;
+    }
+
+    /** Returns the median in nanoseconds. */
+    public long p50Nanos() {
+      return percentileNanos(50);
+    }
+
+    /** Returns the 99th percentile in nanoseconds. */
+    public long p99Nanos() {
+      return percentileNanos(99);
+    }
+
+    /** Returns the 99.9th percentile in nanoseconds. */
+    public long p999Nanos() {
+      return percentileNanos(99.9);
+    }
+
+    @Override
+    public String toString() {
+      return "count=%d, mean=%.0fns, p50=%dns, p99=%dns, p999=%dns, max=%dns"
+          .formatted(count, meanNanos(), p50Nanos(), p99Nanos(), p999Nanos(), maxNanos);
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package de.cronn.commons.lang;
+
+/**
+ * Implementation of {@link Action#limited(ConcurrencyLimiter)}: holds a permit of the limiter for
+ * the duration of each execution and reports its latency and outcome on release.
+ */
+final class LimitedAction implements Action {
+
+  private final Action delegate;
+  private final ConcurrencyLimiter limiter;
+
+  LimitedAction(Action delegate, ConcurrencyLimiter limiter) {
+    this.delegate = delegate;
+    this.limiter = limiter;
+  }
+
+  @Override
+  public void execute() throws Exception {
+    limiter.acquire();
+    long start = System.nanoTime();
+    boolean success = false;
+    try {
+      delegate.execute();
+      success = true;
+    } finally {
+      limiter.release(System.nanoTime() - start, success);
+    }
+  }
+}
@@ -0,0 +1,326 @@
+package de.cronn.commons.lang;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A compressed set of {@code long} values, based on the container design of Roaring bitmaps.
+ *
+ * <p>Values are grouped by their high 32 bits, and the low 32 bits of each group are stored in an
+ * {@link IntBitmapSet}. See there for the storage format; as long as IDs stay within a few ranges
+ * of 2<sup>32</sup> values, a {@code LongBitmapSet} is as compact as an {@code IntBitmapSet}.
+ *
+ * <p>Iteration is in ascending order. The primitive methods {@link #add(long)}, {@link
+ * #contains(long)}, {@link #longIterator()} and {@link #longStream()} avoid boxing; the {@link
+ * java.util.Set} methods are provided for interoperability. The set must not be modified while it
+ * is iterated, and its iterators do not support {@link Iterator#remove()}; use {@link
+ * #removeIf(Predicate)} instead. Instances are not thread-safe.
+ *
+ * @see SetUtils#longSet(long...)
+ * @see StreamUtil#toLongSet(java.util.function.ToLongFunction)
+ */
+public final class LongBitmapSet extends AbstractSet<Long> {
+
+  private NavigableMap<Integer, IntBitmapSet> buckets = new TreeMap<>();
+  private long cardinality;
+
+  /** Creates an empty set. */
+  public LongBitmapSet() {}
+
+  /**
+   * Adds the given value.
+   *
+   * @param value the value to add
+   * @return {@code true} if the set did not contain the value before
+   */
+  public boolean add(long value) {
+    IntBitmapSet bucket = buckets.computeIfAbsent(high(value), key -> new IntBitmapSet());
+    if (bucket.add(low(value))) {
+      cardinality++;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Removes the given value.
+   *
+   * @param value the value to remove
+   * @return {@code true} if the set contained the value
+   */
+  public boolean remove(long value) {
+    IntBitmapSet bucket = buckets.get(high(value));
+    if (bucket == null || !bucket.remove(low(value))) {
+      return false;
+    }
+    if (bucket.isEmpty()) {
+      buckets.remove(high(value));
+    }
+    cardinality--;
+    return true;
+  }
+
+  /**
+   * Returns whether this set contains the given value.
+   *
+   * @param value the value to look up
+   * @return {@code true} if this set contains {@code value}
+   */
+  public boolean contains(long value) {
+    IntBitmapSet bucket = buckets.get(high(value));
+    return bucket != null && bucket.contains(low(value));
+  }
+
+  /**
+   * Returns the number of values in this set. Unlike {@link #size()}, the result is not capped at
+   * {@link Integer#MAX_VALUE}.
+   */
+  public long cardinality() {
+    return cardinality;
+  }
+
+  /**
+   * Returns a new set with the values contained in both this set and {@code other}.
+   *
+   * @param other the set to intersect with
+   * @return the intersection as a new set
+   */
+  public LongBitmapSet and(LongBitmapSet other) {
+    LongBitmapSet result = new LongBitmapSet();
+    for (Map.Entry<Integer, IntBitmapSet> entry : buckets.entrySet()) {
+      IntBitmapSet otherBucket = other.buckets.get(entry.getKey());
+      if (otherBucket != null) {
+        result.putBucket(entry.getKey(), entry.getValue().and(otherBucket));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns a new set with the values contained in this set or {@code other}.
+   *
+   * @param other the set to unite with
+   * @return the union as a new set
+   */
+  public LongBitmapSet or(LongBitmapSet other) {
+    LongBitmapSet result = new LongBitmapSet();
+    IntBitmapSet empty = new IntBitmapSet();
+    for (Map.Entry<Integer, IntBitmapSet> entry : buckets.entrySet()) {
+      IntBitmapSet otherBucket = other.buckets.getOrDefault(entry.getKey(), empty);
+      result.putBucket(entry.getKey(), entry.getValue().or(otherBucket));
+    }
+    for (Map.Entry<Integer, IntBitmapSet> entry : other.buckets.entrySet()) {
+      if (!buckets.containsKey(entry.getKey())) {
+        result.putBucket(entry.getKey(), entry.getValue().or(empty));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns a new set with the values contained in this set but not in {@code other}.
+   *
+   * @param other the set of values to exclude
+   * @return the difference as a new set
+   */
+  public LongBitmapSet andNot(LongBitmapSet other) {
+    LongBitmapSet result = new LongBitmapSet();
+    IntBitmapSet empty = new IntBitmapSet();
+    for (Map.Entry<Integer, IntBitmapSet> entry : buckets.entrySet()) {
+      IntBitmapSet otherBucket = other.buckets.getOrDefault(entry.getKey(), empty);
+      result.putBucket(entry.getKey(), entry.getValue().andNot(otherBucket));
+    }
+    return result;
+  }
+
+  /**
+   * Converts the containers of this set to run-length encoding where that takes less memory, e.g.
+   * for contiguous ranges of values. Call this after a set was populated if it is kept around.
+   *
+   * @return {@code true} if any container was converted
+   */
+  public boolean runOptimize() {
+    boolean changed = false;
+    for (IntBitmapSet bucket : buckets.values()) {
+      changed |= bucket.runOptimize();
+    }
+    return changed;
+  }
+
+  /** Returns an iterator over the values of this set in ascending order. */
+  public PrimitiveIterator.OfLong longIterator() {
+    Iterator<Map.Entry<Integer, IntBitmapSet>> entries = buckets.entrySet().iterator();
+    return new PrimitiveIterator.OfLong() {
+      private long high;
+      private PrimitiveIterator.OfInt values;
+
+      @Override
+      public boolean hasNext() {
+        while (values == null || !values.hasNext()) {
+          if (!entries.hasNext()) {
+            return false;
+          }
+          Map.Entry<Integer, IntBitmapSet> entry = entries.next();
+          high = (long) entry.getKey() << 32;
+          values = entry.getValue().intIterator();
+        }
+        return true;
+      }
+
+      @Override
+      public long nextLong() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return high | ((values.nextInt() ^ Integer.MIN_VALUE) & 0xFFFF_FFFFL);
+      }
+    };
+  }
+
+  /** Returns a sequential stream of the values of this set in ascending order. */
+  public LongStream longStream() {
+    return StreamSupport.longStream(
+        Spliterators.spliterator(
+            longIterator(),
+            cardinality,
+            Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL),
+        false);
+  }
+
+  @Override
+  public int size() {
+    return (int) Math.min(cardinality, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return cardinality == 0;
+  }
+
+  @Override
+  public boolean contains(Object element) {
+    return element instanceof Long value && contains(value.longValue());
+  }
+
+  @Override
+  public boolean add(Long element) {
+    return add(element.longValue());
+  }
+
+  @Override
+  public boolean remove(Object element) {
+    return element instanceof Long value && remove(value.longValue());
+  }
+
+  @Override
+  public boolean removeAll(Collection<?> elements) {
+    boolean changed = false;
+    for (Object element : elements) {
+      changed |= remove(element);
+    }
+    return changed;
+  }
+
+  @Override
+  public boolean retainAll(Collection<?> elements) {
+    return removeMatching(value -> !elements.contains(value));
+  }
+
+  @Override
+  public boolean removeIf(Predicate<? super Long> filter) {
+    return removeMatching(filter::test);
+  }
+
+  private boolean removeMatching(LongPredicate filter) {
+    LongBitmapSet removed = new LongBitmapSet();
+    for (PrimitiveIterator.OfLong iterator = longIterator(); iterator.hasNext(); ) {
+      long value = iterator.nextLong();
+      if (filter.test(value)) {
+        removed.add(value);
+      }
+    }
+    if (removed.isEmpty()) {
+      return false;
+    }
+    LongBitmapSet remaining = andNot(removed);
+    buckets = remaining.buckets;
+    cardinality = remaining.cardinality;
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    buckets.clear();
+    cardinality = 0;
+  }
+
+  @Override
+  public Iterator<Long> iterator() {
+    PrimitiveIterator.OfLong iterator = longIterator();
+    return new Iterator<>() {
+      @Override
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+
+      @Override
+      public Long next() {
+        return iterator.nextLong();
+      }
+    };
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof LongBitmapSet otherSet)) {
+      return super.equals(other);
+    }
+    return cardinality == otherSet.cardinality && buckets.equals(otherSet.buckets);
+  }
+
+  @Override
+  public int hashCode() {
+    int hashCode = 0;
+    for (PrimitiveIterator.OfLong iterator = longIterator(); iterator.hasNext(); ) {
+      hashCode += Long.hashCode(iterator.nextLong());
+    }
+    return hashCode;
+  }
+
+  /** Returns the approximate number of bytes used by the containers of this set. */
+  long sizeInBytes() {
+    long size = 16;
+    for (IntBitmapSet bucket : buckets.values()) {
+      size += 40 + bucket.sizeInBytes();
+    }
+    return size;
+  }
+
+  private void putBucket(int high, IntBitmapSet bucket) {
+    if (!bucket.isEmpty()) {
+      buckets.put(high, bucket);
+      cardinality += bucket.cardinality();
+    }
+  }
+
+  private static int high(long value) {
+    return (int) (value >>> 32);
+  }
+
+  /** Flips the sign bit so that the signed order of the buckets is the unsigned order of values. */
+  private static int low(long value) {
+    return (int) value ^ Integer.MIN_VALUE;
+  }
+}
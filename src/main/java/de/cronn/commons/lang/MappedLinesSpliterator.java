@@ -0,0 +1,233 @@
+package de.cronn.commons.lang;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Spliterator over the lines of a byte range of a file, as returned by {@link
+ * StreamUtil#lines(Path, Charset)}.
+ *
+ * <p>The range is memory-mapped in regions of at most {@value #MAX_REGION_SIZE} bytes, so files
+ * larger than 2 GB can be read as well. {@link #trySplit()} cuts the range in half and moves the
+ * cut to the next line feed, so that each line belongs to exactly one spliterator. Lines are
+ * decoded one at a time when they are consumed. Only charsets in which {@code '\n'} and {@code
+ * '\r'} are single bytes that never occur within other characters are supported; {@link
+ * #lines(Path, Charset)} falls back to {@link Files#lines(Path, Charset)} for all others.
+ */
+final class MappedLinesSpliterator implements Spliterator<String> {
+
+  static final int MAX_REGION_SIZE = 1 << 30;
+
+  private static final int MIN_SPLIT_SIZE = 1 << 16;
+  private static final int SCAN_BUFFER_SIZE = 8192;
+
+  private static final Set<Charset> SUPPORTED_CHARSETS =
+      Set.of(StandardCharsets.UTF_8, StandardCharsets.US_ASCII, StandardCharsets.ISO_8859_1);
+
+  private final FileChannel channel;
+  private final Charset charset;
+  private final long fence;
+  private final int regionSize;
+  private long index;
+
+  private MappedByteBuffer region;
+  private long regionStart;
+  private CharsetDecoder decoder;
+
+  MappedLinesSpliterator(
+      FileChannel channel, Charset charset, long index, long fence, int regionSize) {
+    this.channel = channel;
+    this.charset = charset;
+    this.index = index;
+    this.fence = fence;
+    this.regionSize = regionSize;
+  }
+
+  static Stream<String> lines(Path path, Charset charset) throws IOException {
+    if (!SUPPORTED_CHARSETS.contains(charset)) {
+      return Files.lines(path, charset);
+    }
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      MappedLinesSpliterator spliterator =
+          new MappedLinesSpliterator(channel, charset, 0, channel.size(), MAX_REGION_SIZE);
+      return StreamSupport.stream(spliterator, false).onClose(() -> close(channel));
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private static void close(FileChannel channel) {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super String> action) {
+    if (index >= fence) {
+      return false;
+    }
+    action.accept(readLine());
+    return true;
+  }
+
+  @Override
+  public void forEachRemaining(Consumer<? super String> action) {
+    while (index < fence) {
+      action.accept(readLine());
+    }
+  }
+
+  @Override
+  public Spliterator<String> trySplit() {
+    if (fence - index < 2L * MIN_SPLIT_SIZE) {
+      return null;
+    }
+    long middle = index + (fence - index) / 2;
+    long cut = nextLineStart(middle);
+    if (cut >= fence) {
+      return null;
+    }
+    MappedLinesSpliterator prefix =
+        new MappedLinesSpliterator(channel, charset, index, cut, regionSize);
+    index = cut;
+    region = null;
+    return prefix;
+  }
+
+  @Override
+  public long estimateSize() {
+    return fence - index;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | NONNULL;
+  }
+
+  private String readLine() {
+    long lineStart = index;
+    ByteBuffer buffer = mapRegion(lineStart);
+    int start = (int) (lineStart - regionStart);
+    int position = start;
+    int limit = buffer.limit();
+    while (true) {
+      boolean atRegionEnd =
+          position == limit || (position + 1 == limit && isCarriageReturn(buffer, position));
+      if (atRegionEnd && regionStart + limit < fence) {
+        // the line (or its CRLF terminator) continues in the next region
+        if (start == 0) {
+          throw new UncheckedIOException(
+              new IOException(
+                  "Line at offset %d is longer than %d bytes".formatted(lineStart, limit)));
+        }
+        buffer = remapRegion(lineStart);
+        position -= start;
+        start = 0;
+        limit = buffer.limit();
+        continue;
+      }
+      if (position == limit) {
+        index = fence;
+        return decode(buffer, start, position);
+      }
+      byte value = buffer.get(position);
+      if (value == '\n') {
+        index = regionStart + position + 1;
+        return decode(buffer, start, position);
+      }
+      if (value == '\r') {
+        boolean crlf = position + 1 < limit && buffer.get(position + 1) == '\n';
+        index = regionStart + position + (crlf ? 2 : 1);
+        return decode(buffer, start, position);
+      }
+      position++;
+    }
+  }
+
+  private static boolean isCarriageReturn(ByteBuffer buffer, int position) {
+    return buffer.get(position) == '\r';
+  }
+
+  private long regionEnd() {
+    return regionStart + region.limit();
+  }
+
+  private ByteBuffer mapRegion(long position) {
+    if (region == null || position < regionStart || position >= regionEnd()) {
+      return remapRegion(position);
+    }
+    return region;
+  }
+
+  private ByteBuffer remapRegion(long position) {
+    long size = Math.min(fence - position, regionSize);
+    try {
+      region = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    regionStart = position;
+    return region;
+  }
+
+  private String decode(ByteBuffer buffer, int start, int end) {
+    if (decoder == null) {
+      decoder =
+          charset
+              .newDecoder()
+              .onMalformedInput(CodingErrorAction.REPORT)
+              .onUnmappableCharacter(CodingErrorAction.REPORT);
+    }
+    try {
+      return decoder.decode(buffer.slice(start, end - start)).toString();
+    } catch (CharacterCodingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Returns the position after the first line feed at or after {@code position}, or the fence. */
+  private long nextLineStart(long position) {
+    ByteBuffer scanBuffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+    long scanPosition = position;
+    try {
+      while (scanPosition < fence) {
+        scanBuffer.clear();
+        scanBuffer.limit((int) Math.min(SCAN_BUFFER_SIZE, fence - scanPosition));
+        int read = channel.read(scanBuffer, scanPosition);
+        if (read <= 0) {
+          return fence;
+        }
+        for (int i = 0; i < read; i++) {
+          if (scanBuffer.get(i) == '\n') {
+            return scanPosition + i + 1;
+          }
+        }
+        scanPosition += read;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return fence;
+  }
+}
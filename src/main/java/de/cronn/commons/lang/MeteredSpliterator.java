@@ -0,0 +1,107 @@
+package de.cronn.commons.lang;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Pass-through spliterator backing {@link StreamUtil#metered(java.util.stream.Stream, String)}.
+ *
+ * <p>Measures the time spent in the downstream consumer for each element and records it in the
+ * shared {@link StreamMetrics.Stats}. Every split is metered on its own and emits its own {@link
+ * MeteredStreamEvent} once its traversal ends.
+ */
+final class MeteredSpliterator<T> implements Spliterator<T> {
+
+  private final Spliterator<T> delegate;
+  private final String name;
+  private final StreamMetrics.Stats stats;
+
+  private MeteredStreamEvent event;
+  private boolean traversalEnded;
+  private long elements;
+  private long downstreamNanos;
+
+  MeteredSpliterator(Spliterator<T> delegate, String name, StreamMetrics.Stats stats) {
+    this.delegate = delegate;
+    this.name = name;
+    this.stats = stats;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super T> action) {
+    startTraversal();
+    boolean advanced = delegate.tryAdvance(element -> accept(action, element));
+    if (!advanced) {
+      endTraversal();
+    }
+    return advanced;
+  }
+
+  @Override
+  public void forEachRemaining(Consumer<? super T> action) {
+    startTraversal();
+    delegate.forEachRemaining(element -> accept(action, element));
+    endTraversal();
+  }
+
+  @Override
+  public Spliterator<T> trySplit() {
+    Spliterator<T> split = delegate.trySplit();
+    return split != null ? new MeteredSpliterator<>(split, name, stats) : null;
+  }
+
+  @Override
+  public long estimateSize() {
+    return delegate.estimateSize();
+  }
+
+  @Override
+  public long getExactSizeIfKnown() {
+    return delegate.getExactSizeIfKnown();
+  }
+
+  @Override
+  public int characteristics() {
+    return delegate.characteristics();
+  }
+
+  @Override
+  public Comparator<? super T> getComparator() {
+    return delegate.getComparator();
+  }
+
+  private void accept(Consumer<? super T> action, T element) {
+    long start = System.nanoTime();
+    try {
+      action.accept(element);
+    } finally {
+      long downstream = System.nanoTime() - start;
+      elements++;
+      downstreamNanos += downstream;
+      stats.recordElement(downstream);
+    }
+  }
+
+  private void startTraversal() {
+    if (event == null) {
+      stats.recordTraversalStart(System.nanoTime());
+      event = new MeteredStreamEvent();
+      event.begin();
+    }
+  }
+
+  private void endTraversal() {
+    if (traversalEnded) {
+      return;
+    }
+    traversalEnded = true;
+    stats.recordTraversalEnd(System.nanoTime());
+    if (event.shouldCommit()) {
+      event.name = name;
+      event.elements = elements;
+      event.downstreamNanos = downstreamNanos;
+      event.commit();
+    }
+  }
+}
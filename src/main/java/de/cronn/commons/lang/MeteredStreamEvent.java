@@ -0,0 +1,25 @@
+package de.cronn.commons.lang;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/** JDK Flight Recorder event emitted for each traversal of a metered stream. */
+@Name("de.cronn.commons.lang.MeteredStream")
+@Label("Metered Stream")
+@Category({"cronn", "Streams"})
+@Description("Traversal of a stream created by StreamUtil.metered")
+final class MeteredStreamEvent extends jdk.jfr.Event {
+
+  @Label("Name")
+  String name;
+
+  @Label("Elements")
+  long elements;
+
+  @Label("Downstream Time")
+  @Timespan(Timespan.NANOSECONDS)
+  long downstreamNanos;
+}
@@ -0,0 +1,29 @@
+package de.cronn.commons.lang;
+
+/**
+ * Implementation of {@link Action#once()}: executes the delegate until it completes successfully
+ * for the first time. Once that happened, {@link #execute()} returns after a single volatile read.
+ */
+final class OnceAction implements Action {
+
+  private final Action singleFlight;
+  private volatile boolean done;
+
+  OnceAction(Action delegate) {
+    this.singleFlight =
+        new SingleFlightAction(
+            () -> {
+              if (!done) {
+                delegate.execute();
+                done = true;
+              }
+            });
+  }
+
+  @Override
+  public void execute() throws Exception {
+    if (!done) {
+      singleFlight.execute();
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package de.cronn.commons.lang;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/** Implementation of {@link Action#runAll(Collection, int)}. */
+final class ParallelActionRunner {
+
+  private ParallelActionRunner() {}
+
+  static void runAll(Collection<? extends Action> actions, int maxParallelism) throws Exception {
+    if (maxParallelism < 1) {
+      throw new IllegalArgumentException(
+          "maxParallelism must be positive but was " + maxParallelism);
+    }
+    Queue<Action> pending = new ConcurrentLinkedQueue<>(actions);
+    List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+    AtomicBoolean failed = new AtomicBoolean();
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      int numberOfWorkers = Math.min(maxParallelism, pending.size());
+      for (int i = 0; i < numberOfWorkers && !failed.get(); i++) {
+        try {
+          executor.execute(
+              () -> {
+                Action action;
+                while (!failed.get() && (action = pending.poll()) != null) {
+                  try {
+                    action.execute();
+                  } catch (Throwable e) {
+                    failures.add(e);
+                    if (failed.compareAndSet(false, true)) {
+                      executor.shutdownNow();
+                    }
+                  }
+                }
+              });
+        } catch (RejectedExecutionException e) {
+          // another worker failed and shut down the executor in the meantime
+          break;
+        }
+      }
+    }
+
+    if (!failures.isEmpty()) {
+      Throwable failure = failures.getFirst();
+      for (Throwable suppressed : failures.subList(1, failures.size())) {
+        failure.addSuppressed(suppressed);
+      }
+      if (failure instanceof Exception exception) {
+        throw exception;
+      }
+      throw (Error) failure;
+    }
+    if (Thread.interrupted()) {
+      throw new InterruptedException("Interrupted while waiting for actions to complete");
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package de.cronn.commons.lang;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/** Utility methods for working with {@link Path} instances and file trees. */
+public final class PathUtils {
+
+  private PathUtils() {}
+
+  /**
+   * Walks the file tree rooted at the given path in natural order, without a depth limit.
+   *
+   * @param start the starting file or directory
+   * @return a lazy stream of the paths of the file tree; must be closed by the caller
+   * @throws IOException if the starting file cannot be accessed
+   * @see #walkSorted(Path, int)
+   */
+  public static Stream<Path> walkSorted(Path start) throws IOException {
+    return walkSorted(start, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Walks the file tree rooted at the given path depth-first, with the entries of each directory
+   * sorted by their file names in the order of {@link AlphanumericComparator}: {@code file2} before
+   * {@code file10}, {@code part-9} before {@code part-10}.
+   *
+   * <p>Like {@link Files#walk(Path, int, java.nio.file.FileVisitOption...)}, the stream starts with
+   * {@code start} itself, each directory is followed by its entries, symbolic links are not
+   * followed, and I/O errors during the walk are thrown as {@link java.io.UncheckedIOException}.
+   * Unlike sorting the result of {@code Files.walk}, the first paths are available as soon as the
+   * first directories are listed, and memory is only needed for the directories on the current path
+   * and the few directories listed ahead:
+   *
+   * <pre>{@code
+   * try (Stream<Path> paths = PathUtils.walkSorted(exportDirectory, 3)) {
+   *   paths.filter(Files::isRegularFile).forEach(this::process);
+   * }
+   * }</pre>
+   *
+   * <p>Directories are listed on virtual threads. While a directory is traversed, the listings of
+   * its next subdirectories are already running, so that slow file systems are read in parallel.
+   * Closing the stream cancels the running listings.
+   *
+   * @param start the starting file or directory
+   * @param maxDepth the maximum number of directory levels to visit; 0 visits only {@code start}
+   * @return a lazy stream of the paths of the file tree; must be closed by the caller
+   * @throws IOException if the starting file cannot be accessed
+   */
+  public static Stream<Path> walkSorted(Path start, int maxDepth) throws IOException {
+    if (maxDepth < 0) {
+      throw new IllegalArgumentException("maxDepth must not be negative but was " + maxDepth);
+    }
+    boolean isDirectory =
+        Files.readAttributes(start, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS)
+            .isDirectory();
+    SortedPathSpliterator spliterator = new SortedPathSpliterator(start, isDirectory, maxDepth);
+    return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+  }
+}
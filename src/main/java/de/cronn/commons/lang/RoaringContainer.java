@@ -0,0 +1,527 @@
+package de.cronn.commons.lang;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Holds the low 16 bits of all values of an {@link IntBitmapSet} that share the same high 16 bits,
+ * in one of three representations as in Roaring bitmaps:
+ *
+ * <ul>
+ *   <li>{@link ArrayContainer}: a sorted {@code char[]}, for up to {@value #MAX_ARRAY_SIZE} values
+ *   <li>{@link BitmapContainer}: a 65536-bit bitmap, for more values
+ *   <li>{@link RunContainer}: sorted runs of consecutive values, created by {@link #runOptimize()}
+ *       when that is the smallest representation
+ * </ul>
+ *
+ * <p>Mutating operations return the container to use from then on, which is a different
+ * representation if the cardinality crossed the array/bitmap threshold. Run containers are
+ * converted to array or bitmap containers before they are mutated. Containers with a cardinality of
+ * zero are never stored.
+ */
+abstract class RoaringContainer {
+
+  static final int MAX_ARRAY_SIZE = 4096;
+
+  private static final int BITMAP_WORDS = 1024;
+
+  private RoaringContainer() {}
+
+  abstract int cardinality();
+
+  abstract boolean contains(char value);
+
+  abstract RoaringContainer add(char value);
+
+  abstract RoaringContainer remove(char value);
+
+  /** Returns an iterator over the values of this container in ascending order. */
+  abstract PrimitiveIterator.OfInt iterator();
+
+  abstract RoaringContainer copy();
+
+  abstract long sizeInBytes();
+
+  /** Returns the smallest representation of this container, which may be this container. */
+  abstract RoaringContainer runOptimize();
+
+  static RoaringContainer of(char value) {
+    ArrayContainer container = new ArrayContainer(new char[4], 0);
+    return container.add(value);
+  }
+
+  static RoaringContainer and(RoaringContainer container1, RoaringContainer container2) {
+    RoaringContainer left = withoutRuns(container1);
+    RoaringContainer right = withoutRuns(container2);
+    if (left instanceof ArrayContainer array1 && right instanceof ArrayContainer array2) {
+      char[] result = new char[Math.min(array1.cardinality, array2.cardinality)];
+      int count = 0;
+      int i = 0;
+      int j = 0;
+      while (i < array1.cardinality && j < array2.cardinality) {
+        char value1 = array1.values[i];
+        char value2 = array2.values[j];
+        if (value1 < value2) {
+          i++;
+        } else if (value1 > value2) {
+          j++;
+        } else {
+          result[count++] = value1;
+          i++;
+          j++;
+        }
+      }
+      return new ArrayContainer(result, count);
+    }
+    if (left instanceof BitmapContainer bitmap1 && right instanceof BitmapContainer bitmap2) {
+      long[] words = new long[BITMAP_WORDS];
+      for (int i = 0; i < BITMAP_WORDS; i++) {
+        words[i] = bitmap1.words[i] & bitmap2.words[i];
+      }
+      return BitmapContainer.fromWords(words);
+    }
+    ArrayContainer array = (ArrayContainer) (left instanceof ArrayContainer ? left : right);
+    RoaringContainer other = array == left ? right : left;
+    return array.filter(other, true);
+  }
+
+  static RoaringContainer or(RoaringContainer container1, RoaringContainer container2) {
+    RoaringContainer left = withoutRuns(container1);
+    RoaringContainer right = withoutRuns(container2);
+    if (left instanceof ArrayContainer array1 && right instanceof ArrayContainer array2) {
+      if (array1.cardinality + array2.cardinality <= MAX_ARRAY_SIZE) {
+        char[] result = new char[array1.cardinality + array2.cardinality];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < array1.cardinality || j < array2.cardinality) {
+          if (j == array2.cardinality
+              || (i < array1.cardinality && array1.values[i] < array2.values[j])) {
+            result[count++] = array1.values[i++];
+          } else if (i == array1.cardinality || array2.values[j] < array1.values[i]) {
+            result[count++] = array2.values[j++];
+          } else {
+            result[count++] = array1.values[i++];
+            j++;
+          }
+        }
+        return new ArrayContainer(result, count);
+      }
+      long[] words = array1.toWords();
+      array2.setBits(words);
+      return BitmapContainer.fromWords(words);
+    }
+    BitmapContainer bitmap = (BitmapContainer) (left instanceof BitmapContainer ? left : right);
+    RoaringContainer other = bitmap == left ? right : left;
+    long[] words = bitmap.words.clone();
+    if (other instanceof BitmapContainer otherBitmap) {
+      for (int i = 0; i < BITMAP_WORDS; i++) {
+        words[i] |= otherBitmap.words[i];
+      }
+    } else {
+      ((ArrayContainer) other).setBits(words);
+    }
+    return BitmapContainer.fromWords(words);
+  }
+
+  static RoaringContainer andNot(RoaringContainer container1, RoaringContainer container2) {
+    RoaringContainer left = withoutRuns(container1);
+    RoaringContainer right = withoutRuns(container2);
+    if (left instanceof ArrayContainer array) {
+      return array.filter(right, false);
+    }
+    long[] words = ((BitmapContainer) left).words.clone();
+    if (right instanceof BitmapContainer bitmap) {
+      for (int i = 0; i < BITMAP_WORDS; i++) {
+        words[i] &= ~bitmap.words[i];
+      }
+    } else {
+      ArrayContainer array = (ArrayContainer) right;
+      for (int i = 0; i < array.cardinality; i++) {
+        char value = array.values[i];
+        words[value >>> 6] &= ~(1L << value);
+      }
+    }
+    return BitmapContainer.fromWords(words);
+  }
+
+  private static RoaringContainer withoutRuns(RoaringContainer container) {
+    return container instanceof RunContainer run ? run.toArrayOrBitmap() : container;
+  }
+
+  private static RoaringContainer runOptimize(RoaringContainer container, int runCount) {
+    long currentSize =
+        container instanceof ArrayContainer array
+            ? 16 + 2L * array.cardinality
+            : container.sizeInBytes();
+    if (RunContainer.sizeInBytes(runCount) >= currentSize) {
+      return container;
+    }
+    char[] runs = new char[2 * runCount];
+    int run = -1;
+    int previous = -2;
+    for (PrimitiveIterator.OfInt iterator = container.iterator(); iterator.hasNext(); ) {
+      int value = iterator.nextInt();
+      if (value != previous + 1) {
+        run++;
+        runs[2 * run] = (char) value;
+      }
+      runs[2 * run + 1] = (char) (value - runs[2 * run]);
+      previous = value;
+    }
+    return new RunContainer(runs, runCount, container.cardinality());
+  }
+
+  static final class ArrayContainer extends RoaringContainer {
+    private char[] values;
+    private int cardinality;
+
+    private ArrayContainer(char[] values, int cardinality) {
+      this.values = values;
+      this.cardinality = cardinality;
+    }
+
+    @Override
+    int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    boolean contains(char value) {
+      return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+    }
+
+    @Override
+    RoaringContainer add(char value) {
+      int index = Arrays.binarySearch(values, 0, cardinality, value);
+      if (index >= 0) {
+        return this;
+      }
+      if (cardinality == MAX_ARRAY_SIZE) {
+        long[] words = toWords();
+        words[value >>> 6] |= 1L << value;
+        return new BitmapContainer(words, cardinality + 1);
+      }
+      int insertionPoint = -index - 1;
+      if (cardinality == values.length) {
+        values = Arrays.copyOf(values, Math.min(MAX_ARRAY_SIZE, Math.max(4, 2 * cardinality)));
+      }
+      System.arraycopy(
+          values, insertionPoint, values, insertionPoint + 1, cardinality - insertionPoint);
+      values[insertionPoint] = value;
+      cardinality++;
+      return this;
+    }
+
+    @Override
+    RoaringContainer remove(char value) {
+      int index = Arrays.binarySearch(values, 0, cardinality, value);
+      if (index >= 0) {
+        System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+        cardinality--;
+      }
+      return this;
+    }
+
+    @Override
+    PrimitiveIterator.OfInt iterator() {
+      return new PrimitiveIterator.OfInt() {
+        private int index;
+
+        @Override
+        public boolean hasNext() {
+          return index < cardinality;
+        }
+
+        @Override
+        public int nextInt() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          return values[index++];
+        }
+      };
+    }
+
+    @Override
+    RoaringContainer copy() {
+      return new ArrayContainer(Arrays.copyOf(values, cardinality), cardinality);
+    }
+
+    @Override
+    long sizeInBytes() {
+      return 16 + 2L * values.length;
+    }
+
+    @Override
+    RoaringContainer runOptimize() {
+      int runCount = 0;
+      for (int i = 0; i < cardinality; i++) {
+        if (i == 0 || values[i] != values[i - 1] + 1) {
+          runCount++;
+        }
+      }
+      return RoaringContainer.runOptimize(this, runCount);
+    }
+
+    private RoaringContainer filter(RoaringContainer other, boolean keepContained) {
+      char[] result = new char[cardinality];
+      int count = 0;
+      for (int i = 0; i < cardinality; i++) {
+        if (other.contains(values[i]) == keepContained) {
+          result[count++] = values[i];
+        }
+      }
+      return new ArrayContainer(result, count);
+    }
+
+    private long[] toWords() {
+      long[] words = new long[BITMAP_WORDS];
+      setBits(words);
+      return words;
+    }
+
+    private void setBits(long[] words) {
+      for (int i = 0; i < cardinality; i++) {
+        char value = values[i];
+        words[value >>> 6] |= 1L << value;
+      }
+    }
+  }
+
+  static final class BitmapContainer extends RoaringContainer {
+    private final long[] words;
+    private int cardinality;
+
+    private BitmapContainer(long[] words, int cardinality) {
+      this.words = words;
+      this.cardinality = cardinality;
+    }
+
+    private static RoaringContainer fromWords(long[] words) {
+      int cardinality = 0;
+      for (long word : words) {
+        cardinality += Long.bitCount(word);
+      }
+      BitmapContainer bitmap = new BitmapContainer(words, cardinality);
+      return cardinality <= MAX_ARRAY_SIZE ? bitmap.toArray() : bitmap;
+    }
+
+    @Override
+    int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    boolean contains(char value) {
+      return (words[value >>> 6] & (1L << value)) != 0;
+    }
+
+    @Override
+    RoaringContainer add(char value) {
+      long word = words[value >>> 6];
+      long updated = word | (1L << value);
+      if (updated != word) {
+        words[value >>> 6] = updated;
+        cardinality++;
+      }
+      return this;
+    }
+
+    @Override
+    RoaringContainer remove(char value) {
+      long word = words[value >>> 6];
+      long updated = word & ~(1L << value);
+      if (updated != word) {
+        words[value >>> 6] = updated;
+        cardinality--;
+        if (cardinality <= MAX_ARRAY_SIZE) {
+          return toArray();
+        }
+      }
+      return this;
+    }
+
+    @Override
+    PrimitiveIterator.OfInt iterator() {
+      return new PrimitiveIterator.OfInt() {
+        private int wordIndex = -1;
+        private long word;
+
+        @Override
+        public boolean hasNext() {
+          while (word == 0) {
+            if (wordIndex == BITMAP_WORDS - 1) {
+              return false;
+            }
+            word = words[++wordIndex];
+          }
+          return true;
+        }
+
+        @Override
+        public int nextInt() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          int value = (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+          word &= word - 1;
+          return value;
+        }
+      };
+    }
+
+    @Override
+    RoaringContainer copy() {
+      return new BitmapContainer(words.clone(), cardinality);
+    }
+
+    @Override
+    long sizeInBytes() {
+      return 16 + 8L * BITMAP_WORDS;
+    }
+
+    @Override
+    RoaringContainer runOptimize() {
+      int runCount = 0;
+      long previousHighestBit = 0;
+      for (long word : words) {
+        runCount += Long.bitCount(word & ~((word << 1) | previousHighestBit));
+        previousHighestBit = word >>> 63;
+      }
+      return RoaringContainer.runOptimize(this, runCount);
+    }
+
+    private ArrayContainer toArray() {
+      char[] values = new char[cardinality];
+      int count = 0;
+      for (PrimitiveIterator.OfInt iterator = iterator(); iterator.hasNext(); ) {
+        values[count++] = (char) iterator.nextInt();
+      }
+      return new ArrayContainer(values, count);
+    }
+  }
+
+  static final class RunContainer extends RoaringContainer {
+    /** Pairs of run start and run length minus one, sorted by start. */
+    private final char[] runs;
+
+    private final int runCount;
+    private final int cardinality;
+
+    private RunContainer(char[] runs, int runCount, int cardinality) {
+      this.runs = runs;
+      this.runCount = runCount;
+      this.cardinality = cardinality;
+    }
+
+    private static long sizeInBytes(int runCount) {
+      return 16 + 4L * runCount;
+    }
+
+    @Override
+    int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    boolean contains(char value) {
+      int low = 0;
+      int high = runCount - 1;
+      while (low <= high) {
+        int middle = (low + high) >>> 1;
+        int start = runs[2 * middle];
+        if (value < start) {
+          high = middle - 1;
+        } else if (value > start + runs[2 * middle + 1]) {
+          low = middle + 1;
+        } else {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    RoaringContainer add(char value) {
+      return contains(value) ? this : toArrayOrBitmap().add(value);
+    }
+
+    @Override
+    RoaringContainer remove(char value) {
+      return contains(value) ? toArrayOrBitmap().remove(value) : this;
+    }
+
+    @Override
+    PrimitiveIterator.OfInt iterator() {
+      return new PrimitiveIterator.OfInt() {
+        private int run;
+        private int offset;
+
+        @Override
+        public boolean hasNext() {
+          return run < runCount;
+        }
+
+        @Override
+        public int nextInt() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          int value = runs[2 * run] + offset;
+          if (offset == runs[2 * run + 1]) {
+            run++;
+            offset = 0;
+          } else {
+            offset++;
+          }
+          return value;
+        }
+      };
+    }
+
+    @Override
+    RoaringContainer copy() {
+      return this;
+    }
+
+    @Override
+    long sizeInBytes() {
+      return sizeInBytes(runCount);
+    }
+
+    @Override
+    RoaringContainer runOptimize() {
+      return this;
+    }
+
+    private RoaringContainer toArrayOrBitmap() {
+      if (cardinality <= MAX_ARRAY_SIZE) {
+        char[] values = new char[cardinality];
+        int count = 0;
+        for (PrimitiveIterator.OfInt iterator = iterator(); iterator.hasNext(); ) {
+          values[count++] = (char) iterator.nextInt();
+        }
+        return new ArrayContainer(values, count);
+      }
+      long[] words = new long[BITMAP_WORDS];
+      for (int run = 0; run < runCount; run++) {
+        int start = runs[2 * run];
+        int end = start + runs[2 * run + 1];
+        int startWord = start >>> 6;
+        int endWord = end >>> 6;
+        long startMask = -1L << start;
+        long endMask = -1L >>> (63 - (end & 63));
+        if (startWord == endWord) {
+          words[startWord] |= startMask & endMask;
+        } else {
+          words[startWord] |= startMask;
+          Arrays.fill(words, startWord + 1, endWord, -1L);
+          words[endWord] |= endMask;
+        }
+      }
+      return new BitmapContainer(words, cardinality);
+    }
+  }
+}
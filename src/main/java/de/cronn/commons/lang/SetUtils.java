@@ -3,6 +3,7 @@ package de.cronn.commons.lang;
 import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.SequencedSet;
+import java.util.Set;
 
 /** Utility methods for creating and working with {@link java.util.Set} instances. */
 public final class SetUtils {
@@ -24,4 +25,96 @@ public final class SetUtils {
   public static <E> SequencedSet<E> orderedSet(E... elements) {
     return new LinkedHashSet<>(Arrays.asList(elements));
   }
+
+  /**
+   * Creates a compressed bitmap set containing the given {@code int} values.
+   *
+   * <p>Compared to a {@code Set<Integer>}, an {@link IntBitmapSet} needs a small fraction of the
+   * memory for dense ranges of values such as database IDs, iterates in ascending order and offers
+   * fast {@link IntBitmapSet#and and}, {@link IntBitmapSet#or or} and {@link IntBitmapSet#andNot
+   * andNot} operations.
+   *
+   * @param values the values to include
+   * @return a mutable bitmap set containing the given values
+   */
+  public static IntBitmapSet intSet(int... values) {
+    IntBitmapSet set = new IntBitmapSet();
+    for (int value : values) {
+      set.add(value);
+    }
+    return set;
+  }
+
+  /**
+   * Creates a compressed bitmap set containing the given {@code long} values.
+   *
+   * @param values the values to include
+   * @return a mutable bitmap set containing the given values
+   * @see #intSet(int...)
+   */
+  public static LongBitmapSet longSet(long... values) {
+    LongBitmapSet set = new LongBitmapSet();
+    for (long value : values) {
+      set.add(value);
+    }
+    return set;
+  }
+
+  /**
+   * Returns an unmodifiable view of the union of two sets, without copying them.
+   *
+   * <p>The view iterates over all elements of {@code set1} followed by the elements of {@code set2}
+   * that are not contained in {@code set1}. See {@link SetView} for details.
+   *
+   * @param set1 the first set
+   * @param set2 the second set
+   * @return a lazy view of all elements contained in either set
+   */
+  public static <E> SetView<E> union(Set<? extends E> set1, Set<? extends E> set2) {
+    return SetView.union(set1, set2);
+  }
+
+  /**
+   * Returns an unmodifiable view of the intersection of two sets, without copying them.
+   *
+   * <p>The view iterates over the smaller of both sets and checks each element for membership in
+   * the larger one, so the iteration order is that of the smaller set (or of {@code set1} if both
+   * sets have the same size). See {@link SetView} for details.
+   *
+   * @param set1 the first set
+   * @param set2 the second set
+   * @return a lazy view of all elements contained in both sets
+   */
+  public static <E> SetView<E> intersection(Set<? extends E> set1, Set<? extends E> set2) {
+    return SetView.intersection(set1, set2);
+  }
+
+  /**
+   * Returns an unmodifiable view of the difference of two sets, without copying them.
+   *
+   * <p>The view iterates over the elements of {@code set1} that are not contained in {@code set2}.
+   * See {@link SetView} for details.
+   *
+   * @param set1 the set to take the elements from
+   * @param set2 the set of elements to exclude
+   * @return a lazy view of all elements contained in {@code set1} but not in {@code set2}
+   */
+  public static <E> SetView<E> difference(Set<? extends E> set1, Set<?> set2) {
+    return SetView.difference(set1, set2);
+  }
+
+  /**
+   * Returns an unmodifiable view of the symmetric difference of two sets, without copying them.
+   *
+   * <p>The view iterates over the elements of {@code set1} that are not contained in {@code set2},
+   * followed by the elements of {@code set2} that are not contained in {@code set1}. See {@link
+   * SetView} for details.
+   *
+   * @param set1 the first set
+   * @param set2 the second set
+   * @return a lazy view of all elements contained in exactly one of both sets
+   */
+  public static <E> SetView<E> symmetricDifference(Set<? extends E> set1, Set<? extends E> set2) {
+    return SetView.symmetricDifference(set1, set2);
+  }
 }
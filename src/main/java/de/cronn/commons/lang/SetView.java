@@ -0,0 +1,332 @@
+package de.cronn.commons.lang;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.function.Predicate;
+
+/**
+ * An unmodifiable, lazily evaluated view of the result of a set operation, as returned by {@link
+ * SetUtils#union(Set, Set)}, {@link SetUtils#intersection(Set, Set)}, {@link
+ * SetUtils#difference(Set, Set)} and {@link SetUtils#symmetricDifference(Set, Set)}.
+ *
+ * <p>A view does not copy its operands: {@link #contains(Object)} is answered by querying the
+ * operands and iteration filters them on the fly. If both operands are {@link SortedSet}s with the
+ * same comparator, the view iterates in that sort order by merging the operands in linear time,
+ * without any lookups.
+ *
+ * <p>The size of a view is computed by iteration on the first call of {@link #size()} and cached
+ * afterwards, so the operands must not be modified once the size was queried. Use {@link
+ * #copyInto(Set)} to materialize a view that outlives modifications of its operands.
+ *
+ * @param <E> the element type
+ */
+public abstract class SetView<E> extends AbstractSet<E> {
+
+  private int size = -1;
+
+  private SetView() {}
+
+  /**
+   * Adds all elements of this view to the given set.
+   *
+   * <pre>{@code
+   * Set<Long> missing = SetUtils.difference(expected, actual).copyInto(new LinkedHashSet<>());
+   * }</pre>
+   *
+   * @param target the set to add the elements to
+   * @return {@code target}
+   */
+  public <S extends Set<? super E>> S copyInto(S target) {
+    for (E element : this) {
+      target.add(element);
+    }
+    return target;
+  }
+
+  @Override
+  public int size() {
+    if (size < 0) {
+      int count = 0;
+      for (Iterator<E> iterator = iterator(); iterator.hasNext(); iterator.next()) {
+        count++;
+      }
+      size = count;
+    }
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size >= 0 ? size == 0 : !iterator().hasNext();
+  }
+
+  @Override
+  public final boolean add(E element) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public final boolean addAll(Collection<? extends E> elements) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public final boolean remove(Object element) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public final boolean removeAll(Collection<?> elements) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public final boolean retainAll(Collection<?> elements) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public final boolean removeIf(Predicate<? super E> filter) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public final void clear() {
+    throw new UnsupportedOperationException();
+  }
+
+  static <E> SetView<E> union(Set<? extends E> set1, Set<? extends E> set2) {
+    return new SetView<>() {
+      @Override
+      public boolean contains(Object element) {
+        return set1.contains(element) || set2.contains(element);
+      }
+
+      @Override
+      public Iterator<E> iterator() {
+        if (haveSameOrder(set1, set2)) {
+          return new MergingIterator<>(set1, set2, true, true, true);
+        }
+        return concat(set1.iterator(), filter(set2.iterator(), element -> !set1.contains(element)));
+      }
+    };
+  }
+
+  static <E> SetView<E> intersection(Set<? extends E> set1, Set<? extends E> set2) {
+    Set<? extends E> smaller = set2.size() < set1.size() ? set2 : set1;
+    Set<? extends E> larger = smaller == set1 ? set2 : set1;
+    return new SetView<>() {
+      @Override
+      public boolean contains(Object element) {
+        return smaller.contains(element) && larger.contains(element);
+      }
+
+      @Override
+      public Iterator<E> iterator() {
+        if (haveSameOrder(set1, set2)) {
+          return new MergingIterator<>(set1, set2, false, false, true);
+        }
+        return filter(smaller.iterator(), larger::contains);
+      }
+    };
+  }
+
+  static <E> SetView<E> difference(Set<? extends E> set1, Set<?> set2) {
+    return new SetView<>() {
+      @Override
+      public boolean contains(Object element) {
+        return set1.contains(element) && !set2.contains(element);
+      }
+
+      @Override
+      @SuppressWarnings("unchecked") // elements of set2 are never emitted
+      public Iterator<E> iterator() {
+        if (haveSameOrder(set1, set2)) {
+          return new MergingIterator<>(set1, (Set<? extends E>) set2, true, false, false);
+        }
+        return filter(set1.iterator(), element -> !set2.contains(element));
+      }
+    };
+  }
+
+  static <E> SetView<E> symmetricDifference(Set<? extends E> set1, Set<? extends E> set2) {
+    return new SetView<>() {
+      @Override
+      public boolean contains(Object element) {
+        return set1.contains(element) != set2.contains(element);
+      }
+
+      @Override
+      public Iterator<E> iterator() {
+        if (haveSameOrder(set1, set2)) {
+          return new MergingIterator<>(set1, set2, true, true, false);
+        }
+        return concat(
+            filter(set1.iterator(), element -> !set2.contains(element)),
+            filter(set2.iterator(), element -> !set1.contains(element)));
+      }
+    };
+  }
+
+  private static boolean haveSameOrder(Set<?> set1, Set<?> set2) {
+    return set1 instanceof SortedSet<?> sorted1
+        && set2 instanceof SortedSet<?> sorted2
+        && Objects.equals(sorted1.comparator(), sorted2.comparator());
+  }
+
+  private static <E> Iterator<E> concat(Iterator<? extends E> first, Iterator<? extends E> second) {
+    return new Iterator<>() {
+      @Override
+      public boolean hasNext() {
+        return first.hasNext() || second.hasNext();
+      }
+
+      @Override
+      public E next() {
+        return first.hasNext() ? first.next() : second.next();
+      }
+    };
+  }
+
+  private static <E> Iterator<E> filter(Iterator<? extends E> source, Predicate<Object> filter) {
+    return new LookaheadIterator<>() {
+      @Override
+      boolean advance() {
+        while (source.hasNext()) {
+          E element = source.next();
+          if (filter.test(element)) {
+            setNext(element);
+            return true;
+          }
+        }
+        return false;
+      }
+    };
+  }
+
+  private abstract static class LookaheadIterator<E> implements Iterator<E> {
+    private E next;
+    private boolean ready;
+
+    /** Sets the next element via {@link #setNext(Object)} and returns true, or returns false. */
+    abstract boolean advance();
+
+    final void setNext(E element) {
+      next = element;
+    }
+
+    @Override
+    public final boolean hasNext() {
+      if (!ready) {
+        ready = advance();
+      }
+      return ready;
+    }
+
+    @Override
+    public final E next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      ready = false;
+      E element = next;
+      next = null;
+      return element;
+    }
+  }
+
+  /**
+   * Merges two sets that iterate in the same sort order, emitting the elements that occur only in
+   * the first set, only in the second set and/or in both sets.
+   */
+  private static final class MergingIterator<E> extends LookaheadIterator<E> {
+    private final Iterator<? extends E> iterator1;
+    private final Iterator<? extends E> iterator2;
+    private final Comparator<Object> comparator;
+    private final boolean emitOnlyFirst;
+    private final boolean emitOnlySecond;
+    private final boolean emitBoth;
+    private E head1;
+    private E head2;
+    private boolean hasHead1;
+    private boolean hasHead2;
+
+    @SuppressWarnings("unchecked")
+    MergingIterator(
+        Set<? extends E> set1,
+        Set<? extends E> set2,
+        boolean emitOnlyFirst,
+        boolean emitOnlySecond,
+        boolean emitBoth) {
+      Comparator<?> setComparator = ((SortedSet<?>) set1).comparator();
+      this.comparator =
+          setComparator != null
+              ? (Comparator<Object>) setComparator
+              : (a, b) -> ((Comparable<Object>) a).compareTo(b);
+      this.iterator1 = set1.iterator();
+      this.iterator2 = set2.iterator();
+      this.emitOnlyFirst = emitOnlyFirst;
+      this.emitOnlySecond = emitOnlySecond;
+      this.emitBoth = emitBoth;
+      advance1();
+      advance2();
+    }
+
+    @Override
+    boolean advance() {
+      while (hasHead1 || hasHead2) {
+        int comparison;
+        if (!hasHead1) {
+          comparison = 1;
+        } else if (!hasHead2) {
+          comparison = -1;
+        } else {
+          comparison = comparator.compare(head1, head2);
+        }
+        if (comparison < 0) {
+          E element = head1;
+          advance1();
+          if (emitOnlyFirst) {
+            setNext(element);
+            return true;
+          }
+        } else if (comparison > 0) {
+          E element = head2;
+          advance2();
+          if (emitOnlySecond) {
+            setNext(element);
+            return true;
+          }
+        } else {
+          E element = head1;
+          advance1();
+          advance2();
+          if (emitBoth) {
+            setNext(element);
+            return true;
+          }
+        }
+        if ((!hasHead1 && !emitOnlySecond) || (!hasHead2 && !emitOnlyFirst)) {
+          return false;
+        }
+      }
+      return false;
+    }
+
+    private void advance1() {
+      hasHead1 = iterator1.hasNext();
+      head1 = hasHead1 ? iterator1.next() : null;
+    }
+
+    private void advance2() {
+      hasHead2 = iterator2.hasNext();
+      head2 = hasHead2 ? iterator2.next() : null;
+    }
+  }
+}
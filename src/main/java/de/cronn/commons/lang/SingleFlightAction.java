@@ -0,0 +1,52 @@
+package de.cronn.commons.lang;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Implementation of {@link Action#singleFlight()}: callers that arrive while an execution is in
+ * progress wait for it and share its outcome instead of executing the delegate themselves.
+ */
+final class SingleFlightAction implements Action {
+
+  private final Action delegate;
+  private final AtomicReference<CompletableFuture<Void>> inFlight = new AtomicReference<>();
+
+  SingleFlightAction(Action delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public void execute() throws Exception {
+    CompletableFuture<Void> flight = new CompletableFuture<>();
+    CompletableFuture<Void> existingFlight = inFlight.compareAndExchange(null, flight);
+    if (existingFlight != null) {
+      join(existingFlight);
+      return;
+    }
+    try {
+      delegate.execute();
+    } catch (Throwable e) {
+      inFlight.set(null);
+      flight.completeExceptionally(e);
+      throw e;
+    }
+    inFlight.set(null);
+    flight.complete(null);
+  }
+
+  private static void join(CompletableFuture<Void> flight) throws Exception {
+    try {
+      flight.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof Exception exception) {
+        throw exception;
+      } else if (cause instanceof Error error) {
+        throw error;
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,174 @@
+package de.cronn.commons.lang;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator backing {@link PathUtils#walkSorted(Path, int)}.
+ *
+ * <p>Emits the file tree depth-first, keeping one {@link Level} per directory on the current path.
+ * Each level lists its directory on a virtual thread, precomputes the {@link AlphanumericKey} of
+ * every file name there and sorts the entries by it. While a level is traversed, the listings of
+ * its next {@value #PREFETCH_DIRECTORIES} subdirectories are already running, so that the walk
+ * rarely waits for the file system. Memory is bounded by the listings of the directories on the
+ * current path and their prefetched subdirectories.
+ */
+final class SortedPathSpliterator extends Spliterators.AbstractSpliterator<Path> {
+
+  static final int PREFETCH_DIRECTORIES = 8;
+
+  private static final Comparator<Entry> ENTRY_ORDER =
+      Comparator.comparing(Entry::key).thenComparing(Entry::path);
+
+  private record Entry(Path path, boolean directory, AlphanumericKey key) {}
+
+  private final Path start;
+  private final boolean startIsDirectory;
+  private final int maxDepth;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final Deque<Level> levels = new ArrayDeque<>();
+  private boolean startEmitted;
+
+  SortedPathSpliterator(Path start, boolean startIsDirectory, int maxDepth) {
+    super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+    this.start = start;
+    this.startIsDirectory = startIsDirectory;
+    this.maxDepth = maxDepth;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super Path> action) {
+    if (!startEmitted) {
+      startEmitted = true;
+      if (startIsDirectory && maxDepth > 0) {
+        levels.push(new Level(submitListing(start), 0));
+      }
+      action.accept(start);
+      return true;
+    }
+    while (!levels.isEmpty()) {
+      Level level = levels.peek();
+      Entry entry = level.nextEntry();
+      if (entry == null) {
+        levels.pop();
+        continue;
+      }
+      if (entry.directory() && level.depth + 1 < maxDepth) {
+        levels.push(new Level(level.listing(entry), level.depth + 1));
+      }
+      action.accept(entry.path());
+      return true;
+    }
+    return false;
+  }
+
+  /** Cancels all running directory listings. */
+  void close() {
+    executor.shutdownNow();
+  }
+
+  private Future<List<Entry>> submitListing(Path directory) {
+    return executor.submit(() -> list(directory));
+  }
+
+  private static List<Entry> list(Path directory) throws IOException {
+    AlphanumericComparator comparator = AlphanumericComparator.getInstance();
+    List<Entry> entries = new ArrayList<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+      for (Path path : stream) {
+        boolean isDirectory =
+            Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS)
+                .isDirectory();
+        entries.add(new Entry(path, isDirectory, comparator.key(path.getFileName().toString())));
+      }
+    }
+    entries.sort(ENTRY_ORDER);
+    return entries;
+  }
+
+  private final class Level {
+
+    private final Future<List<Entry>> pendingEntries;
+    private final int depth;
+    private final Map<Path, Future<List<Entry>>> prefetched = new HashMap<>();
+    private List<Entry> entries;
+    private int next;
+    private int prefetchCursor;
+
+    Level(Future<List<Entry>> pendingEntries, int depth) {
+      this.pendingEntries = pendingEntries;
+      this.depth = depth;
+    }
+
+    /** Returns the next entry of this directory, or {@code null} if all entries were emitted. */
+    Entry nextEntry() {
+      if (entries == null) {
+        entries = await(pendingEntries);
+      }
+      if (next == entries.size()) {
+        return null;
+      }
+      Entry entry = entries.get(next++);
+      prefetch();
+      return entry;
+    }
+
+    /** Returns the listing of the given subdirectory, submitting it if it was not prefetched. */
+    Future<List<Entry>> listing(Entry directory) {
+      Future<List<Entry>> listing = prefetched.remove(directory.path());
+      return listing != null ? listing : submitListing(directory.path());
+    }
+
+    private void prefetch() {
+      if (depth + 1 >= maxDepth) {
+        return;
+      }
+      prefetchCursor = Math.max(prefetchCursor, next - 1);
+      while (prefetched.size() < PREFETCH_DIRECTORIES && prefetchCursor < entries.size()) {
+        Entry entry = entries.get(prefetchCursor++);
+        if (entry.directory()) {
+          prefetched.put(entry.path(), submitListing(entry.path()));
+        }
+      }
+    }
+  }
+
+  private static List<Entry> await(Future<List<Entry>> listing) {
+    try {
+      return listing.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CancellationException("Interrupted while listing a directory");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException ioException) {
+        throw new UncheckedIOException(ioException);
+      } else if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      } else if (cause instanceof Error error) {
+        throw error;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+}
@@ -0,0 +1,399 @@
+package de.cronn.commons.lang;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Replayable buffer of stream elements that keeps up to a configured number of bytes on the heap
+ * and spills the remainder to a temporary file, which is memory-mapped when read back.
+ *
+ * <p>Created via {@link StreamUtil#spillable(Stream, Serializer, long)}. Elements are stored in
+ * their serialized form; the serialized size is used as the measure of heap usage. The buffer can
+ * be streamed any number of times, and its streams split for parallel processing. {@link
+ * #sorted(Comparator)} performs an external merge sort that likewise keeps at most about {@code
+ * maxHeapBytes} of serialized elements per sorted run on the heap.
+ *
+ * <pre>{@code
+ * try (SpillableBuffer<String> buffer =
+ *     StreamUtil.spillable(lines, SpillableBuffer.Serializer.strings(), 256 * 1024 * 1024)) {
+ *   long count = buffer.size();
+ *   buffer.stream().forEach(line -> process(line, count));
+ * }
+ * }</pre>
+ *
+ * <p>The buffer must be {@linkplain #close() closed} to delete its temporary file.
+ *
+ * @param <T> the element type
+ */
+public final class SpillableBuffer<T> implements AutoCloseable {
+
+  private static final int MAX_SEGMENT_BYTES = 8 * 1024 * 1024;
+
+  /**
+   * Writes elements to and reads elements from the binary representation stored in a {@link
+   * SpillableBuffer}.
+   *
+   * @param <T> the element type
+   */
+  public interface Serializer<T> {
+
+    /** Writes the given element to {@code output}. */
+    void write(T element, DataOutput output) throws IOException;
+
+    /** Reads an element previously written by {@link #write(Object, DataOutput)}. */
+    T read(DataInput input) throws IOException;
+
+    /** Returns a serializer for non-null strings of arbitrary length, encoded as UTF-8. */
+    static Serializer<String> strings() {
+      return new Serializer<>() {
+        @Override
+        public void write(String element, DataOutput output) throws IOException {
+          byte[] bytes = element.getBytes(StandardCharsets.UTF_8);
+          output.writeInt(bytes.length);
+          output.write(bytes);
+        }
+
+        @Override
+        public String read(DataInput input) throws IOException {
+          byte[] bytes = new byte[input.readInt()];
+          input.readFully(bytes);
+          return new String(bytes, StandardCharsets.UTF_8);
+        }
+      };
+    }
+  }
+
+  private record Segment(byte[] bytes, long offset, int length, long count) {
+    boolean isSpilled() {
+      return bytes == null;
+    }
+  }
+
+  private final Serializer<T> serializer;
+  private final long maxHeapBytes;
+  private final int maxSegmentBytes;
+  private final List<Segment> segments = new ArrayList<>();
+
+  private final ByteArrayOutputStream segmentBytes = new ByteArrayOutputStream();
+  private final DataOutputStream segmentOutput = new DataOutputStream(segmentBytes);
+  private long segmentCount;
+  private long heapBytes;
+  private long size;
+
+  private FileChannel spillFile;
+  private long spillFileLength;
+  private boolean completed;
+  private volatile boolean closed;
+
+  SpillableBuffer(Serializer<T> serializer, long maxHeapBytes) {
+    if (maxHeapBytes < 0) {
+      throw new IllegalArgumentException(
+          "maxHeapBytes must not be negative but was " + maxHeapBytes);
+    }
+    this.serializer = serializer;
+    this.maxHeapBytes = maxHeapBytes;
+    this.maxSegmentBytes = (int) Math.max(1, Math.min(maxHeapBytes, MAX_SEGMENT_BYTES));
+  }
+
+  static <T> SpillableBuffer<T> of(Stream<T> stream, Serializer<T> serializer, long maxHeapBytes) {
+    SpillableBuffer<T> buffer = new SpillableBuffer<>(serializer, maxHeapBytes);
+    try {
+      stream.sequential().forEachOrdered(buffer::add);
+      buffer.complete();
+      return buffer;
+    } catch (RuntimeException | Error e) {
+      buffer.close();
+      throw e;
+    }
+  }
+
+  /** Returns the number of elements in this buffer. */
+  public long size() {
+    return size;
+  }
+
+  /** Returns {@code true} if any elements were spilled to disk. */
+  public boolean isSpilled() {
+    return spillFile != null;
+  }
+
+  /**
+   * Returns a new stream over the elements of this buffer, in the order in which they were added.
+   * May be called any number of times until the buffer is closed. The stream is splittable at
+   * segment boundaries and can therefore be used in parallel.
+   *
+   * @return a sequential stream of the buffered elements
+   */
+  public Stream<T> stream() {
+    ensureOpen();
+    return StreamSupport.stream(new SegmentSpliterator(0, segments.size()), false);
+  }
+
+  /**
+   * Sorts the elements of this buffer by an external merge sort and returns them as a new buffer
+   * with the same heap limit. Runs of about {@code maxHeapBytes} serialized bytes are sorted on the
+   * heap and then merged into the returned buffer. This buffer remains usable and must still be
+   * closed.
+   *
+   * @param comparator the comparator, e.g. {@link AlphanumericComparator#getInstance()}
+   * @return a new buffer containing the elements in sorted order; must be closed by the caller
+   */
+  public SpillableBuffer<T> sorted(Comparator<? super T> comparator) {
+    ensureOpen();
+    SpillableBuffer<T> runs = new SpillableBuffer<>(serializer, maxHeapBytes);
+    SpillableBuffer<T> result = new SpillableBuffer<>(serializer, maxHeapBytes);
+    try (runs) {
+      List<int[]> runRanges = new ArrayList<>();
+      int segmentIndex = 0;
+      while (segmentIndex < segments.size()) {
+        int from = segmentIndex;
+        long runBytes = 0;
+        do {
+          runBytes += segments.get(segmentIndex).length();
+          segmentIndex++;
+        } while (segmentIndex < segments.size()
+            && runBytes + segments.get(segmentIndex).length() <= maxHeapBytes);
+
+        List<T> run = new ArrayList<>();
+        new SegmentSpliterator(from, segmentIndex).forEachRemaining(run::add);
+        run.sort(comparator);
+        int runStart = runs.segments.size();
+        run.forEach(runs::add);
+        runs.flushSegment();
+        runRanges.add(new int[] {runStart, runs.segments.size()});
+      }
+      merge(runs, runRanges, comparator, result);
+      result.complete();
+      return result;
+    } catch (RuntimeException | Error e) {
+      result.close();
+      throw e;
+    }
+  }
+
+  /** Deletes the temporary file, if any. The buffer cannot be streamed afterwards. */
+  @Override
+  public void close() {
+    closed = true;
+    if (spillFile != null) {
+      try {
+        spillFile.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  private static <T> void merge(
+      SpillableBuffer<T> runs,
+      List<int[]> runRanges,
+      Comparator<? super T> comparator,
+      SpillableBuffer<T> result) {
+    record Head<T>(T element, Spliterator<T> run) {}
+    PriorityQueue<Head<T>> heads =
+        new PriorityQueue<>(
+            Math.max(1, runRanges.size()), (h1, h2) -> comparator.compare(h1.element, h2.element));
+    for (int[] range : runRanges) {
+      Spliterator<T> run = runs.new SegmentSpliterator(range[0], range[1]);
+      run.tryAdvance(element -> heads.add(new Head<>(element, run)));
+    }
+    while (!heads.isEmpty()) {
+      Head<T> head = heads.poll();
+      result.add(head.element);
+      head.run.tryAdvance(element -> heads.add(new Head<>(element, head.run)));
+    }
+  }
+
+  private void add(T element) {
+    if (completed) {
+      throw new IllegalStateException("Buffer is already completed");
+    }
+    try {
+      serializer.write(element, segmentOutput);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    segmentCount++;
+    size++;
+    if (segmentBytes.size() >= maxSegmentBytes) {
+      flushSegment();
+    }
+  }
+
+  private void complete() {
+    flushSegment();
+    completed = true;
+  }
+
+  private void flushSegment() {
+    if (segmentCount == 0) {
+      return;
+    }
+    byte[] bytes = segmentBytes.toByteArray();
+    segmentBytes.reset();
+    segments.add(new Segment(bytes, -1, bytes.length, segmentCount));
+    segmentCount = 0;
+    heapBytes += bytes.length;
+    if (heapBytes > maxHeapBytes) {
+      spillSegments();
+    }
+  }
+
+  private void spillSegments() {
+    try {
+      if (spillFile == null) {
+        Path path = Files.createTempFile("spillable-buffer-", ".bin");
+        spillFile =
+            FileChannel.open(
+                path,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE);
+      }
+      for (int i = 0; i < segments.size(); i++) {
+        Segment segment = segments.get(i);
+        if (!segment.isSpilled()) {
+          ByteBuffer buffer = ByteBuffer.wrap(segment.bytes());
+          long offset = spillFileLength;
+          while (buffer.hasRemaining()) {
+            spillFileLength += spillFile.write(buffer, spillFileLength);
+          }
+          segments.set(i, new Segment(null, offset, segment.length(), segment.count()));
+          heapBytes -= segment.length();
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void ensureOpen() {
+    if (closed) {
+      throw new IllegalStateException("Buffer is closed");
+    }
+  }
+
+  private DataInputStream open(Segment segment) {
+    ensureOpen();
+    ByteBuffer buffer;
+    if (segment.isSpilled()) {
+      try {
+        buffer = spillFile.map(FileChannel.MapMode.READ_ONLY, segment.offset(), segment.length());
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    } else {
+      buffer = ByteBuffer.wrap(segment.bytes());
+    }
+    return new DataInputStream(new ByteBufferInputStream(buffer));
+  }
+
+  private final class SegmentSpliterator implements Spliterator<T> {
+    private int segmentIndex;
+    private final int toSegment;
+    private long remaining;
+
+    private DataInputStream input;
+    private long remainingInSegment;
+
+    SegmentSpliterator(int fromSegment, int toSegment) {
+      this.segmentIndex = fromSegment;
+      this.toSegment = toSegment;
+      for (int i = fromSegment; i < toSegment; i++) {
+        remaining += segments.get(i).count();
+      }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+      while (remainingInSegment == 0) {
+        if (segmentIndex >= toSegment) {
+          input = null;
+          return false;
+        }
+        Segment segment = segments.get(segmentIndex++);
+        input = open(segment);
+        remainingInSegment = segment.count();
+      }
+      T element;
+      try {
+        element = serializer.read(input);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      remainingInSegment--;
+      remaining--;
+      action.accept(element);
+      return true;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+      int unstarted = toSegment - segmentIndex;
+      if (unstarted < 2 || remainingInSegment > 0) {
+        return null;
+      }
+      int middle = segmentIndex + unstarted / 2;
+      SegmentSpliterator prefix = new SegmentSpliterator(segmentIndex, middle);
+      segmentIndex = middle;
+      remaining -= prefix.remaining;
+      return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+      return remaining;
+    }
+
+    @Override
+    public int characteristics() {
+      return ORDERED | SIZED | SUBSIZED | IMMUTABLE;
+    }
+  }
+
+  private static final class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+
+    ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+      if (length == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int read = Math.min(length, buffer.remaining());
+      buffer.get(bytes, offset, read);
+      return read;
+    }
+  }
+}
@@ -0,0 +1,153 @@
+package de.cronn.commons.lang;
+
+import java.util.Map;
+import java.util.SequencedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory registry of the statistics recorded by {@link
+ * StreamUtil#metered(java.util.stream.Stream, String)} and {@link
+ * StreamUtil#distinctByKey(java.util.function.Function, String)}.
+ *
+ * <p>Metering is disabled by default, in which case the metering methods return their input
+ * unchanged and add no overhead. Enable it at runtime via {@link #setEnabled(boolean)} or at
+ * startup with the system property {@value #ENABLED_PROPERTY}{@code =true}.
+ *
+ * <p>Counters are striped ({@link LongAdder}), so parallel streams do not contend on them. In
+ * addition to the registry, each traversal of a metered stream emits a {@code
+ * de.cronn.commons.lang.MeteredStream} JDK Flight Recorder event when recording is active.
+ */
+public final class StreamMetrics {
+
+  /** System property that enables metering at startup. */
+  public static final String ENABLED_PROPERTY = "de.cronn.commons.lang.streamMetrics";
+
+  private static final ConcurrentMap<String, Stats> REGISTRY = new ConcurrentHashMap<>();
+
+  private static volatile boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+
+  private StreamMetrics() {}
+
+  /** Returns {@code true} if streams are currently metered. */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Enables or disables metering. Only affects streams and predicates created after the call.
+   *
+   * @param enabled whether metering should be enabled
+   */
+  public static void setEnabled(boolean enabled) {
+    StreamMetrics.enabled = enabled;
+  }
+
+  /**
+   * Returns a snapshot of the statistics of all metered streams, sorted by name.
+   *
+   * @return a sequenced map from metric name to its current statistics
+   */
+  public static SequencedMap<String, Snapshot> snapshot() {
+    SequencedMap<String, Snapshot> snapshot = new TreeMap<>();
+    for (Map.Entry<String, Stats> entry : REGISTRY.entrySet()) {
+      snapshot.put(entry.getKey(), entry.getValue().snapshot(entry.getKey()));
+    }
+    return snapshot;
+  }
+
+  /**
+   * Returns a snapshot of the statistics recorded under the given name.
+   *
+   * @param name the metric name
+   * @return the current statistics, all zero if nothing was recorded under {@code name}
+   */
+  public static Snapshot snapshot(String name) {
+    Stats stats = REGISTRY.get(name);
+    return stats != null ? stats.snapshot(name) : new Snapshot(name, 0, 0, 0, 0, 0);
+  }
+
+  /** Removes all recorded statistics. */
+  public static void reset() {
+    REGISTRY.clear();
+  }
+
+  static Stats stats(String name) {
+    return REGISTRY.computeIfAbsent(name, key -> new Stats());
+  }
+
+  /**
+   * Point-in-time statistics of a metered stream.
+   *
+   * @param name the metric name
+   * @param elements number of elements that passed through the metered stage
+   * @param downstreamNanos total time spent in the stages downstream of the metered stage
+   * @param elapsedNanos wall-clock time from the first traversal start to the last traversal end
+   * @param distinctHits number of elements that passed a metered {@code distinctByKey} predicate
+   * @param duplicates number of elements that were rejected by a metered {@code distinctByKey}
+   *     predicate
+   */
+  public record Snapshot(
+      String name,
+      long elements,
+      long downstreamNanos,
+      long elapsedNanos,
+      long distinctHits,
+      long duplicates) {
+
+    /** Returns the throughput of the metered stage in elements per second. */
+    public double elementsPerSecond() {
+      if (elapsedNanos <= 0) {
+        return 0;
+      }
+      return elements * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+  }
+
+  static final class Stats {
+    private final LongAdder elements = new LongAdder();
+    private final LongAdder downstreamNanos = new LongAdder();
+    private final LongAdder distinctHits = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final AtomicLong firstStartNanos = new AtomicLong();
+    private final AtomicLong lastEndNanos = new AtomicLong();
+
+    void recordElement(long downstreamNanos) {
+      elements.increment();
+      this.downstreamNanos.add(downstreamNanos);
+    }
+
+    void recordTraversalStart(long nanoTime) {
+      firstStartNanos.compareAndSet(0, nanoTime);
+    }
+
+    void recordTraversalEnd(long nanoTime) {
+      lastEndNanos.accumulateAndGet(nanoTime, Math::max);
+    }
+
+    void recordDistinctHit() {
+      distinctHits.increment();
+    }
+
+    void recordDuplicate() {
+      duplicates.increment();
+    }
+
+    private Snapshot snapshot(String name) {
+      long start = firstStartNanos.get();
+      long end = lastEndNanos.get();
+      long elapsed = start != 0 && end > start ? end - start : 0;
+      return new Snapshot(
+          name,
+          elements.sum(),
+          downstreamNanos.sum(),
+          elapsed,
+          distinctHits.sum(),
+          duplicates.sum());
+    }
+  }
+}
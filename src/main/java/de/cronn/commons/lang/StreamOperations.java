@@ -0,0 +1,150 @@
+package de.cronn.commons.lang;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Java 21 implementation of the stateful intermediate operations of {@link StreamUtil}, based on
+ * {@link GatheringSpliterator}.
+ *
+ * <p>The multi-release JAR replaces this class on Java 24 and later with an implementation based on
+ * {@code java.util.stream.Gatherer} (see {@code src/main/java24}). Both implementations must have
+ * the same signatures and behavior; arguments are validated by {@link StreamUtil}.
+ */
+final class StreamOperations {
+
+  private StreamOperations() {}
+
+  /** Returns the Java release this implementation was compiled for. */
+  static int release() {
+    return 21;
+  }
+
+  static <T, K> Stream<T> distinctByKey(
+      Stream<T> stream, Function<? super T, ? extends K> keyExtractor) {
+    Set<K> seen = new HashSet<>();
+    return gather(
+        stream,
+        (T element, Consumer<? super T> downstream) -> {
+          if (seen.add(keyExtractor.apply(element))) {
+            downstream.accept(element);
+          }
+          return true;
+        },
+        downstream -> {});
+  }
+
+  static <T> Stream<List<T>> windowFixed(Stream<T> stream, int windowSize) {
+    List<T> window = new ArrayList<>(windowSize);
+    return gather(
+        stream,
+        (T element, Consumer<? super List<T>> downstream) -> {
+          window.add(element);
+          if (window.size() == windowSize) {
+            downstream.accept(copyAndClear(window));
+          }
+          return true;
+        },
+        downstream -> {
+          if (!window.isEmpty()) {
+            downstream.accept(copyAndClear(window));
+          }
+        });
+  }
+
+  static <T> Stream<List<T>> windowSliding(Stream<T> stream, int windowSize) {
+    List<T> window = new ArrayList<>(windowSize);
+    boolean[] emitted = {false};
+    return gather(
+        stream,
+        (T element, Consumer<? super List<T>> downstream) -> {
+          if (window.size() == windowSize) {
+            window.removeFirst();
+          }
+          window.add(element);
+          if (window.size() == windowSize) {
+            downstream.accept(Collections.unmodifiableList(new ArrayList<>(window)));
+            emitted[0] = true;
+          }
+          return true;
+        },
+        downstream -> {
+          if (!emitted[0] && !window.isEmpty()) {
+            downstream.accept(copyAndClear(window));
+          }
+        });
+  }
+
+  static <T> Stream<List<T>> batchedByWeight(
+      Stream<T> stream, long maxWeight, ToLongFunction<? super T> weigher) {
+    List<T> batch = new ArrayList<>();
+    long[] batchWeight = {0};
+    return gather(
+        stream,
+        (T element, Consumer<? super List<T>> downstream) -> {
+          long weight = weigher.applyAsLong(element);
+          if (weight < 0) {
+            throw new IllegalArgumentException("weight must not be negative but was " + weight);
+          }
+          if (!batch.isEmpty() && batchWeight[0] + weight > maxWeight) {
+            downstream.accept(copyAndClear(batch));
+            batchWeight[0] = 0;
+          }
+          batch.add(element);
+          batchWeight[0] += weight;
+          return true;
+        },
+        downstream -> {
+          if (!batch.isEmpty()) {
+            downstream.accept(copyAndClear(batch));
+          }
+        });
+  }
+
+  static <T> T singleElement(Stream<T> stream) {
+    List<T> single = new ArrayList<>(1);
+    return gather(
+            stream,
+            (T element, Consumer<? super T> downstream) -> {
+              if (!single.isEmpty()) {
+                throw new IllegalStateException(
+                    "Exactly one element expected but got at least 2: "
+                        + Arrays.asList(single.getFirst(), element));
+              }
+              single.add(element);
+              return true;
+            },
+            downstream -> {
+              if (single.isEmpty()) {
+                throw new IllegalStateException("Exactly one element expected but got 0: []");
+              }
+              downstream.accept(single.getFirst());
+            })
+        .toList()
+        .getFirst();
+  }
+
+  private static <T, R> Stream<R> gather(
+      Stream<T> stream,
+      GatheringSpliterator.Integrator<? super T, R> integrator,
+      Consumer<Consumer<? super R>> finisher) {
+    GatheringSpliterator<T, R> spliterator =
+        new GatheringSpliterator<>(stream.spliterator(), integrator, finisher);
+    return StreamSupport.stream(spliterator, stream.isParallel()).onClose(stream::close);
+  }
+
+  private static <T> List<T> copyAndClear(List<T> elements) {
+    List<T> copy = Collections.unmodifiableList(new ArrayList<>(elements));
+    elements.clear();
+    return copy;
+  }
+}
@@ -1,5 +1,9 @@
 package de.cronn.commons.lang;
 
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -21,9 +25,12 @@ import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public final class StreamUtil {
 
@@ -50,6 +57,36 @@ public final class StreamUtil {
     return Collectors.toCollection(ArrayList::new);
   }
 
+  /**
+   * Collector that maps each element to an {@code int}, e.g. a database ID, and accumulates the
+   * values into a compressed {@link IntBitmapSet}, without boxing them.
+   *
+   * @param mapper function producing the value for each element
+   * @return a collector that accumulates the values into an {@link IntBitmapSet}
+   */
+  public static <T> Collector<T, ?, IntBitmapSet> toIntSet(ToIntFunction<? super T> mapper) {
+    return Collector.of(
+        IntBitmapSet::new,
+        (set, element) -> set.add(mapper.applyAsInt(element)),
+        IntBitmapSet::or,
+        Collector.Characteristics.UNORDERED);
+  }
+
+  /**
+   * Collector that maps each element to a {@code long}, e.g. a database ID, and accumulates the
+   * values into a compressed {@link LongBitmapSet}, without boxing them.
+   *
+   * @param mapper function producing the value for each element
+   * @return a collector that accumulates the values into a {@link LongBitmapSet}
+   */
+  public static <T> Collector<T, ?, LongBitmapSet> toLongSet(ToLongFunction<? super T> mapper) {
+    return Collector.of(
+        LongBitmapSet::new,
+        (set, element) -> set.add(mapper.applyAsLong(element)),
+        LongBitmapSet::or,
+        Collector.Characteristics.UNORDERED);
+  }
+
   /**
    * Drop-in replacement for {@link Collectors#groupingBy(Function)} which guarantees a
    * deterministic order of the map.
@@ -90,15 +127,7 @@ public final class StreamUtil {
    */
   public static <T, K, V> Collector<T, ?, SequencedMap<K, V>> toLinkedHashMap(
       Function<? super T, ? extends K> keyMapper, Function<? super T, ? extends V> valueMapper) {
-    return toLinkedHashMap(
-        keyMapper,
-        valueMapper,
-        (key, newValue, existingValue) -> {
-          String message =
-              "Duplicate key '%s' with values '%s' and '%s'"
-                  .formatted(key, newValue, existingValue);
-          return new IllegalArgumentException(message);
-        });
+    return toLinkedHashMap(keyMapper, valueMapper, duplicateKeyException());
   }
 
   /**
@@ -119,6 +148,158 @@ public final class StreamUtil {
     return new UniqueKeyLinkedHashMapCollector<>(keyMapper, valueMapper, exceptionSupplier);
   }
 
+  /**
+   * Collector that maps each element to itself, keyed by a {@code long} such as a database ID.
+   * Throws {@link IllegalArgumentException} on duplicate keys.
+   *
+   * <p>Like {@link #toLinkedHashMap(Function)}, the resulting map preserves the encounter order,
+   * but it stores the keys unboxed in a compact open-addressing {@link LongKeyedMap}, so that
+   * lookups via {@link LongKeyedMap#get(long)} do not allocate.
+   *
+   * @param keyMapper function producing the map key for each element
+   * @return a collector that accumulates elements into an ordered {@link LongKeyedMap}
+   * @see #toLongKeyedMap(ToLongFunction, Function, DuplicateKeyExceptionSupplier)
+   */
+  public static <T> Collector<T, ?, LongKeyedMap<T>> toLongKeyedMap(
+      ToLongFunction<? super T> keyMapper) {
+    Function<T, T> identity = Function.identity();
+    return toLongKeyedMap(keyMapper, identity);
+  }
+
+  /**
+   * Collector that maps each element to a {@code long} key and a value using the given mapper
+   * functions. Throws {@link IllegalArgumentException} on duplicate keys.
+   *
+   * @param keyMapper function producing the map key for each element
+   * @param valueMapper function producing the map value for each element
+   * @return a collector that accumulates elements into an ordered {@link LongKeyedMap}
+   * @see #toLongKeyedMap(ToLongFunction, Function, DuplicateKeyExceptionSupplier)
+   */
+  public static <T, V> Collector<T, ?, LongKeyedMap<V>> toLongKeyedMap(
+      ToLongFunction<? super T> keyMapper, Function<? super T, ? extends V> valueMapper) {
+    return toLongKeyedMap(keyMapper, valueMapper, duplicateKeyException());
+  }
+
+  /**
+   * Collector that maps each element to a {@code long} key and a value using the given mapper
+   * functions. When a duplicate key is encountered, the given {@code exceptionSupplier} is called
+   * to produce the exception to throw.
+   *
+   * @param keyMapper function producing the map key for each element
+   * @param valueMapper function producing the map value for each element
+   * @param exceptionSupplier called with the duplicate key and both conflicting values to produce
+   *     the exception
+   * @return a collector that accumulates elements into an ordered {@link LongKeyedMap}
+   */
+  public static <T, V> Collector<T, ?, LongKeyedMap<V>> toLongKeyedMap(
+      ToLongFunction<? super T> keyMapper,
+      Function<? super T, ? extends V> valueMapper,
+      DuplicateKeyExceptionSupplier<Long, V> exceptionSupplier) {
+    return Collector.of(
+        LongKeyedMap::new,
+        (map, element) ->
+            putUnique(
+                map, keyMapper.applyAsLong(element), valueMapper.apply(element), exceptionSupplier),
+        (map1, map2) -> {
+          for (int i = 0; i < map2.size(); i++) {
+            putUnique(map1, map2.keyAt(i), map2.valueAt(i), exceptionSupplier);
+          }
+          return map1;
+        },
+        Collector.Characteristics.IDENTITY_FINISH);
+  }
+
+  /**
+   * Collector that maps each element to itself, keyed by an {@code int} such as a database ID.
+   * Throws {@link IllegalArgumentException} on duplicate keys.
+   *
+   * <p>Like {@link #toLinkedHashMap(Function)}, the resulting map preserves the encounter order,
+   * but it stores the keys unboxed in a compact open-addressing {@link IntKeyedMap}, so that
+   * lookups via {@link IntKeyedMap#get(int)} do not allocate.
+   *
+   * @param keyMapper function producing the map key for each element
+   * @return a collector that accumulates elements into an ordered {@link IntKeyedMap}
+   * @see #toIntKeyedMap(ToIntFunction, Function, DuplicateKeyExceptionSupplier)
+   */
+  public static <T> Collector<T, ?, IntKeyedMap<T>> toIntKeyedMap(
+      ToIntFunction<? super T> keyMapper) {
+    Function<T, T> identity = Function.identity();
+    return toIntKeyedMap(keyMapper, identity);
+  }
+
+  /**
+   * Collector that maps each element to an {@code int} key and a value using the given mapper
+   * functions. Throws {@link IllegalArgumentException} on duplicate keys.
+   *
+   * @param keyMapper function producing the map key for each element
+   * @param valueMapper function producing the map value for each element
+   * @return a collector that accumulates elements into an ordered {@link IntKeyedMap}
+   * @see #toIntKeyedMap(ToIntFunction, Function, DuplicateKeyExceptionSupplier)
+   */
+  public static <T, V> Collector<T, ?, IntKeyedMap<V>> toIntKeyedMap(
+      ToIntFunction<? super T> keyMapper, Function<? super T, ? extends V> valueMapper) {
+    return toIntKeyedMap(keyMapper, valueMapper, duplicateKeyException());
+  }
+
+  /**
+   * Collector that maps each element to an {@code int} key and a value using the given mapper
+   * functions. When a duplicate key is encountered, the given {@code exceptionSupplier} is called
+   * to produce the exception to throw.
+   *
+   * @param keyMapper function producing the map key for each element
+   * @param valueMapper function producing the map value for each element
+   * @param exceptionSupplier called with the duplicate key and both conflicting values to produce
+   *     the exception
+   * @return a collector that accumulates elements into an ordered {@link IntKeyedMap}
+   */
+  public static <T, V> Collector<T, ?, IntKeyedMap<V>> toIntKeyedMap(
+      ToIntFunction<? super T> keyMapper,
+      Function<? super T, ? extends V> valueMapper,
+      DuplicateKeyExceptionSupplier<Integer, V> exceptionSupplier) {
+    return Collector.of(
+        IntKeyedMap::new,
+        (map, element) ->
+            putUnique(
+                map, keyMapper.applyAsInt(element), valueMapper.apply(element), exceptionSupplier),
+        (map1, map2) -> {
+          for (int i = 0; i < map2.size(); i++) {
+            putUnique(map1, map2.keyAt(i), map2.valueAt(i), exceptionSupplier);
+          }
+          return map1;
+        },
+        Collector.Characteristics.IDENTITY_FINISH);
+  }
+
+  private static <K, V> DuplicateKeyExceptionSupplier<K, V> duplicateKeyException() {
+    return (key, newValue, existingValue) -> {
+      String message =
+          "Duplicate key '%s' with values '%s' and '%s'".formatted(key, newValue, existingValue);
+      return new IllegalArgumentException(message);
+    };
+  }
+
+  private static <V> void putUnique(
+      LongKeyedMap<V> map,
+      long key,
+      V value,
+      DuplicateKeyExceptionSupplier<Long, V> exceptionSupplier) {
+    int existing = map.putIfAbsent(key, value);
+    if (existing >= 0) {
+      throw exceptionSupplier.get(key, value, map.valueAt(existing));
+    }
+  }
+
+  private static <V> void putUnique(
+      IntKeyedMap<V> map,
+      int key,
+      V value,
+      DuplicateKeyExceptionSupplier<Integer, V> exceptionSupplier) {
+    int existing = map.putIfAbsent(key, value);
+    if (existing >= 0) {
+      throw exceptionSupplier.get(key, value, map.valueAt(existing));
+    }
+  }
+
   /**
    * Functional interface for supplying an exception when a stream collector encounters more
    * elements than expected.
@@ -220,6 +401,23 @@ public final class StreamUtil {
         });
   }
 
+  /**
+   * Returns the single element of the given stream. Unlike {@link #toSingleElement()}, this fails
+   * as soon as a second element is found, without consuming or buffering the rest of the stream.
+   *
+   * <p>On Java 24 and later, parallel streams are checked in parallel: other parts of the stream
+   * may be consumed concurrently until the failure, and the elements reported in the exception
+   * message are then any two elements of the stream. Up to Java 23, parallel streams are consumed
+   * sequentially.
+   *
+   * @param stream the stream to consume
+   * @return the single element
+   * @throws IllegalStateException if the stream is empty or contains more than one element
+   */
+  public static <T> T singleElement(Stream<T> stream) {
+    return StreamOperations.singleElement(stream);
+  }
+
   /**
    * Returns {@code true} if the given stream contains any duplicate elements (as determined by
    * {@link Object#equals}).
@@ -269,12 +467,15 @@ public final class StreamUtil {
    * stream.filter(StreamUtil.distinctByKey(MyObject::getName))
    * }</pre>
    *
-   * <p><b>Note:</b> The predicate is thread-safe and can be used with parallel streams. {@code
-   * null} keys are not supported.
+   * <p><b>Note:</b> The predicate is thread-safe and can be used with parallel streams, but which
+   * of several elements with the same key is kept is then nondeterministic; use {@link
+   * #toDistinctByKey(Function)} to keep the first element in encounter order. {@code null} keys are
+   * not supported.
    *
    * @param keyExtractor function that produces the key used for deduplication
    * @return a predicate that returns {@code true} only for the first element with each key
    * @see #distinctByKey(Function, Consumer)
+   * @see #toDistinctByKey(Function)
    */
   public static <T, K> Predicate<T> distinctByKey(Function<? super T, K> keyExtractor) {
     return distinctByKey(
@@ -309,6 +510,322 @@ public final class StreamUtil {
     };
   }
 
+  /**
+   * Collector that keeps only the first element in encounter order for each distinct key, as
+   * extracted by {@code keyExtractor}, and returns them in encounter order.
+   *
+   * <p>Unlike {@link #distinctByKey(Function)}, the result is deterministic on parallel streams as
+   * well: each chunk of the stream is deduplicated separately, and when two chunks are combined,
+   * the elements of the earlier chunk take precedence. {@code null} elements are not supported.
+   *
+   * <pre>{@code
+   * List<Order> latestOrders = orders.parallelStream()
+   *     .sorted(Comparator.comparing(Order::createdAt).reversed())
+   *     .collect(StreamUtil.toDistinctByKey(Order::customerId));
+   * }</pre>
+   *
+   * @param keyExtractor function that produces the key used for deduplication
+   * @return a collector that accumulates the first element for each key into a modifiable list
+   */
+  public static <T, K> Collector<T, ?, List<T>> toDistinctByKey(
+      Function<? super T, ? extends K> keyExtractor) {
+    return Collector.of(
+        LinkedHashMap<K, T>::new,
+        (map, element) -> map.putIfAbsent(keyExtractor.apply(element), element),
+        (earlier, later) -> {
+          later.forEach(earlier::putIfAbsent);
+          return earlier;
+        },
+        map -> new ArrayList<>(map.values()));
+  }
+
+  /**
+   * Lazily maps the elements of the given stream on virtual threads, with at most {@code
+   * maxConcurrency} mapper invocations in flight at any time. Results are emitted in the encounter
+   * order of the source stream.
+   *
+   * <p>Intended for I/O-bound mappers (remote calls, blob reads) where a parallel stream on the
+   * common {@link java.util.concurrent.ForkJoinPool} would block its carrier threads:
+   *
+   * <pre>{@code
+   * try (Stream<Customer> customers = StreamUtil.mapConcurrent(ids.stream(), client::load, 64)) {
+   *   customers.forEach(...);
+   * }
+   * }</pre>
+   *
+   * <p>The source stream is consumed sequentially and only as far as required to keep the window of
+   * in-flight invocations full. If a mapper invocation fails, all other in-flight invocations are
+   * cancelled and the exception is rethrown when the failed element is reached. Closing the
+   * returned stream cancels all in-flight invocations and closes the source stream; do so when the
+   * downstream short-circuits (e.g. {@code findFirst()} or {@code limit()}).
+   *
+   * @param stream the source stream
+   * @param mapper the mapping function, called on a virtual thread for each element
+   * @param maxConcurrency the maximum number of concurrent mapper invocations
+   * @return a sequential stream of the mapped elements in encounter order
+   * @see #mapConcurrentUnordered(Stream, Function, int)
+   */
+  public static <T, R> Stream<R> mapConcurrent(
+      Stream<T> stream, Function<? super T, ? extends R> mapper, int maxConcurrency) {
+    return mapConcurrent(stream, mapper, maxConcurrency, true);
+  }
+
+  /**
+   * Like {@link #mapConcurrent(Stream, Function, int)}, but emits the results in the order in which
+   * the mapper invocations complete. This avoids head-of-line blocking when the latency of
+   * individual invocations varies widely.
+   *
+   * @param stream the source stream
+   * @param mapper the mapping function, called on a virtual thread for each element
+   * @param maxConcurrency the maximum number of concurrent mapper invocations
+   * @return a sequential stream of the mapped elements in completion order
+   */
+  public static <T, R> Stream<R> mapConcurrentUnordered(
+      Stream<T> stream, Function<? super T, ? extends R> mapper, int maxConcurrency) {
+    return mapConcurrent(stream, mapper, maxConcurrency, false);
+  }
+
+  private static <T, R> Stream<R> mapConcurrent(
+      Stream<T> stream,
+      Function<? super T, ? extends R> mapper,
+      int maxConcurrency,
+      boolean ordered) {
+    ConcurrentMappingSpliterator<T, R> spliterator =
+        new ConcurrentMappingSpliterator<>(stream.iterator(), mapper, maxConcurrency, ordered);
+    return StreamSupport.stream(spliterator, false)
+        .onClose(spliterator::cancel)
+        .onClose(stream::close);
+  }
+
+  /**
+   * Consumes the given stream on {@code lanes} dedicated worker threads, such that all elements
+   * with equal keys are passed to {@code consumer} by the same thread in encounter order. Blocks
+   * until all elements have been consumed.
+   *
+   * <p>Use this instead of a parallel stream when the elements of one key must be processed in
+   * order, e.g. events of the same account, while elements of different keys can be processed in
+   * parallel:
+   *
+   * <pre>{@code
+   * StreamUtil.partitionByKey(events, Event::accountId, 8, this::apply);
+   * }</pre>
+   *
+   * <p>The source stream is consumed on the calling thread and each element is routed by the hash
+   * of its key into a bounded queue of {@value KeyPartitioner#LANE_CAPACITY} elements per lane. If
+   * that queue is full, the calling thread waits until the worker catches up. If {@code consumer}
+   * throws, the remaining elements of all lanes are discarded, no further elements are taken from
+   * the source, and the exception is rethrown once all workers have stopped. Likewise, if the
+   * source stream or {@code keyExtractor} throws, the workers are stopped before the exception is
+   * propagated.
+   *
+   * @param stream the source stream
+   * @param keyExtractor function that produces the key used for partitioning; may return {@code
+   *     null}
+   * @param lanes the number of worker threads
+   * @param consumer the action to perform on each element, called on a worker thread
+   */
+  public static <T, K> void partitionByKey(
+      Stream<T> stream,
+      Function<? super T, ? extends K> keyExtractor,
+      int lanes,
+      Consumer<? super T> consumer) {
+    new KeyPartitioner<T, K>(keyExtractor, lanes, KeyPartitioner.LANE_CAPACITY, consumer)
+        .run(stream.spliterator());
+  }
+
+  /**
+   * Returns a stream of the elements of the given stream, keeping only the first element in
+   * encounter order for each distinct key, as extracted by {@code keyExtractor}.
+   *
+   * <p>Unlike filtering with {@link #distinctByKey(Function)}, the result is deterministic for
+   * parallel streams as well, because this stage processes the elements sequentially. On Java 24
+   * and later, it is implemented as a {@code java.util.stream.Gatherer}. Supports {@code null}
+   * keys.
+   *
+   * @param stream the source stream
+   * @param keyExtractor function that produces the key used for deduplication
+   * @return a stream of the first element for each key
+   */
+  public static <T, K> Stream<T> distinctByKey(
+      Stream<T> stream, Function<? super T, ? extends K> keyExtractor) {
+    return StreamOperations.distinctByKey(stream, keyExtractor);
+  }
+
+  /**
+   * Groups the elements of the given stream into consecutive, non-overlapping windows of {@code
+   * windowSize} elements. The last window contains the remaining elements and may be smaller.
+   *
+   * <pre>{@code
+   * StreamUtil.windowFixed(Stream.of(1, 2, 3, 4, 5), 2) // [1, 2], [3, 4], [5]
+   * }</pre>
+   *
+   * <p>On Java 24 and later, this is {@code Gatherers.windowFixed(windowSize)}.
+   *
+   * @param stream the source stream
+   * @param windowSize the number of elements per window
+   * @return a stream of unmodifiable windows in encounter order
+   */
+  public static <T> Stream<List<T>> windowFixed(Stream<T> stream, int windowSize) {
+    checkWindowSize(windowSize);
+    return StreamOperations.windowFixed(stream, windowSize);
+  }
+
+  /**
+   * Groups the elements of the given stream into overlapping windows of {@code windowSize}
+   * consecutive elements, advancing by one element per window. If the stream has fewer than {@code
+   * windowSize} elements, a single window with all elements is emitted.
+   *
+   * <pre>{@code
+   * StreamUtil.windowSliding(Stream.of(1, 2, 3, 4), 3) // [1, 2, 3], [2, 3, 4]
+   * }</pre>
+   *
+   * <p>On Java 24 and later, this is {@code Gatherers.windowSliding(windowSize)}.
+   *
+   * @param stream the source stream
+   * @param windowSize the number of elements per window
+   * @return a stream of unmodifiable windows in encounter order
+   */
+  public static <T> Stream<List<T>> windowSliding(Stream<T> stream, int windowSize) {
+    checkWindowSize(windowSize);
+    return StreamOperations.windowSliding(stream, windowSize);
+  }
+
+  /**
+   * Groups consecutive elements of the given stream into batches whose total weight does not exceed
+   * {@code maxWeight}, e.g. to split bulk writes by their payload size:
+   *
+   * <pre>{@code
+   * StreamUtil.batchedByWeight(documents, 5 * 1024 * 1024, Document::sizeInBytes)
+   *     .forEach(index::bulkInsert);
+   * }</pre>
+   *
+   * <p>An element that is heavier than {@code maxWeight} on its own forms a batch of one element.
+   * On Java 24 and later, this is implemented as a {@code java.util.stream.Gatherer}.
+   *
+   * @param stream the source stream
+   * @param maxWeight the maximum total weight of a batch
+   * @param weigher returns the non-negative weight of an element
+   * @return a stream of unmodifiable batches in encounter order
+   */
+  public static <T> Stream<List<T>> batchedByWeight(
+      Stream<T> stream, long maxWeight, ToLongFunction<? super T> weigher) {
+    if (maxWeight < 1) {
+      throw new IllegalArgumentException("maxWeight must be positive but was " + maxWeight);
+    }
+    return StreamOperations.batchedByWeight(stream, maxWeight, weigher);
+  }
+
+  private static void checkWindowSize(int windowSize) {
+    if (windowSize < 1) {
+      throw new IllegalArgumentException("windowSize must be positive but was " + windowSize);
+    }
+  }
+
+  /**
+   * Like {@link #distinctByKey(Function)}, but records the number of distinct hits and duplicates
+   * in the {@link StreamMetrics} registry under the given name. If metering is disabled, this is
+   * equivalent to {@link #distinctByKey(Function)}.
+   *
+   * @param keyExtractor function that produces the key used for deduplication
+   * @param metricName the name under which to record the statistics
+   * @return a predicate that returns {@code true} only for the first element with each key
+   * @see StreamMetrics
+   */
+  public static <T, K> Predicate<T> distinctByKey(
+      Function<? super T, K> keyExtractor, String metricName) {
+    if (!StreamMetrics.isEnabled()) {
+      return distinctByKey(keyExtractor);
+    }
+    StreamMetrics.Stats stats = StreamMetrics.stats(metricName);
+    Predicate<T> distinct = distinctByKey(keyExtractor, duplicate -> stats.recordDuplicate());
+    return value -> {
+      boolean added = distinct.test(value);
+      if (added) {
+        stats.recordDistinctHit();
+      }
+      return added;
+    };
+  }
+
+  /**
+   * Returns a pass-through view of the given stream that records the number of elements, the
+   * throughput and the time spent in the downstream stages in the {@link StreamMetrics} registry
+   * under the given name.
+   *
+   * <pre>{@code
+   * StreamUtil.metered(orders.stream().map(this::enrich), "enriched")
+   *     .forEach(this::store); // time spent here is reported as downstream time of "enriched"
+   * }</pre>
+   *
+   * <p>If metering is disabled, the given stream is returned unchanged.
+   *
+   * @param stream the stream to meter
+   * @param name the name under which to record the statistics
+   * @return a stream with the same elements and characteristics as {@code stream}
+   * @see StreamMetrics
+   */
+  public static <T> Stream<T> metered(Stream<T> stream, String name) {
+    if (!StreamMetrics.isEnabled()) {
+      return stream;
+    }
+    MeteredSpliterator<T> spliterator =
+        new MeteredSpliterator<>(stream.spliterator(), name, StreamMetrics.stats(name));
+    return StreamSupport.stream(spliterator, stream.isParallel()).onClose(stream::close);
+  }
+
+  /**
+   * Consumes the given stream into a replayable {@link SpillableBuffer} that keeps up to {@code
+   * maxHeapBytes} of serialized elements on the heap and spills the rest to a temporary file.
+   *
+   * <p>Use this to materialize streams that may be larger than the heap, e.g. to count the elements
+   * before processing them, or to sort them via {@link SpillableBuffer#sorted(Comparator)}:
+   *
+   * <pre>{@code
+   * try (SpillableBuffer<String> buffer = StreamUtil.spillable(names, Serializer.strings(), limit);
+   *     SpillableBuffer<String> sorted = buffer.sorted(AlphanumericComparator.getInstance())) {
+   *   sorted.stream().forEach(...);
+   * }
+   * }</pre>
+   *
+   * @param stream the stream to buffer; consumed by this call
+   * @param serializer converts elements to and from their binary representation
+   * @param maxHeapBytes the maximum number of serialized bytes to keep on the heap
+   * @return a buffer containing all elements of {@code stream}; must be closed by the caller
+   */
+  public static <T> SpillableBuffer<T> spillable(
+      Stream<T> stream, SpillableBuffer.Serializer<T> serializer, long maxHeapBytes) {
+    return SpillableBuffer.of(stream, serializer, maxHeapBytes);
+  }
+
+  /**
+   * Returns the lines of the given file as a stream that splits well for parallel processing.
+   *
+   * <p>Unlike {@link Files#lines(Path, Charset)}, the file is memory-mapped in regions of at most 1
+   * GB, so that files larger than 2 GB are split as well. A parallel stream cuts the file into
+   * halves at line boundaries, and each line is only decoded when it is consumed:
+   *
+   * <pre>{@code
+   * try (Stream<String> lines = StreamUtil.lines(export, StandardCharsets.UTF_8)) {
+   *   Map<String, List<String>> byCountry = lines.parallel().collect(groupingBy(this::country));
+   * }
+   * }</pre>
+   *
+   * <p>Lines are terminated by {@code "\n"}, {@code "\r\n"} or {@code "\r"}, as for {@link
+   * java.io.BufferedReader#readLine()}. Malformed or unmappable input causes an {@link
+   * java.io.UncheckedIOException} to be thrown from the stream operation that reads it. Only UTF-8,
+   * US-ASCII and ISO-8859-1 are read this way; for other charsets, such as UTF-16, this method is
+   * equivalent to {@link Files#lines(Path, Charset)}. The file must not be modified while it is
+   * read, and the returned stream must be closed to release the file.
+   *
+   * @param path the file to read
+   * @param charset the charset used to decode the file
+   * @return a sequential stream of the lines of the file
+   * @throws IOException if the file cannot be opened
+   */
+  public static Stream<String> lines(Path path, Charset charset) throws IOException {
+    return MappedLinesSpliterator.lines(path, charset);
+  }
+
   /**
    * Functional interface for supplying an exception when a {@link #toLinkedHashMap} collector
    * encounters a duplicate key.
@@ -0,0 +1,43 @@
+package de.cronn.commons.lang;
+
+import jdk.jfr.EventType;
+
+/**
+ * Implementation of {@link Action#timed(String)}: records the latency of every execution, whether
+ * it succeeds or fails, in the histogram registered under the action's name.
+ */
+final class TimedAction implements Action {
+
+  private static final EventType EVENT_TYPE = EventType.getEventType(TimedActionEvent.class);
+
+  private final Action delegate;
+  private final String name;
+  private final LatencyHistogram histogram;
+
+  TimedAction(Action delegate, String name) {
+    this.delegate = delegate;
+    this.name = name;
+    this.histogram = ActionMetrics.histogram(name);
+  }
+
+  @Override
+  public void execute() throws Exception {
+    TimedActionEvent event = EVENT_TYPE.isEnabled() ? new TimedActionEvent() : null;
+    if (event != null) {
+      event.begin();
+    }
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      delegate.execute();
+      failed = false;
+    } finally {
+      histogram.record(System.nanoTime() - start);
+      if (event != null && event.shouldCommit()) {
+        event.name = name;
+        event.failed = failed;
+        event.commit();
+      }
+    }
+  }
+}
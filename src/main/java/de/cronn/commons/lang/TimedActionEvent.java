@@ -0,0 +1,20 @@
+package de.cronn.commons.lang;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** JDK Flight Recorder event emitted for each execution of a timed action. */
+@Name("de.cronn.commons.lang.TimedAction")
+@Label("Timed Action")
+@Category({"cronn", "Actions"})
+@Description("Execution of an action created by Action.timed")
+final class TimedActionEvent extends jdk.jfr.Event {
+
+  @Label("Name")
+  String name;
+
+  @Label("Failed")
+  boolean failed;
+}
@@ -0,0 +1,133 @@
+package de.cronn.commons.lang;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Gatherer;
+import java.util.stream.Gatherers;
+import java.util.stream.Stream;
+
+/**
+ * Java 24 implementation of the stateful intermediate operations of {@link StreamUtil}, based on
+ * {@link Gatherer}. Packaged under {@code META-INF/versions/24} of the multi-release JAR, where it
+ * replaces the Java 21 implementation in {@code src/main/java}.
+ *
+ * <p>Unlike the Java 21 implementation, the gatherers are fused with the surrounding stages of the
+ * pipeline and stop pulling from the source as soon as the downstream rejects further elements.
+ * {@link #singleElement(Stream)} also evaluates parallel streams in parallel.
+ */
+final class StreamOperations {
+
+  private StreamOperations() {}
+
+  /** Returns the Java release this implementation was compiled for. */
+  static int release() {
+    return 24;
+  }
+
+  static <T, K> Stream<T> distinctByKey(
+      Stream<T> stream, Function<? super T, ? extends K> keyExtractor) {
+    return stream.gather(
+        Gatherer.<T, Set<K>, T>ofSequential(
+            HashSet::new,
+            Gatherer.Integrator.<Set<K>, T, T>ofGreedy(
+                (seen, element, downstream) ->
+                    !seen.add(keyExtractor.apply(element)) || downstream.push(element))));
+  }
+
+  static <T> Stream<List<T>> windowFixed(Stream<T> stream, int windowSize) {
+    return stream.gather(Gatherers.windowFixed(windowSize));
+  }
+
+  static <T> Stream<List<T>> windowSliding(Stream<T> stream, int windowSize) {
+    return stream.gather(Gatherers.windowSliding(windowSize));
+  }
+
+  static <T> Stream<List<T>> batchedByWeight(
+      Stream<T> stream, long maxWeight, ToLongFunction<? super T> weigher) {
+    return stream.gather(
+        Gatherer.<T, Batch<T>, List<T>>ofSequential(
+            Batch::new,
+            Gatherer.Integrator.<Batch<T>, T, List<T>>ofGreedy(
+                (batch, element, downstream) -> {
+                  long weight = weigher.applyAsLong(element);
+                  if (weight < 0) {
+                    throw new IllegalArgumentException(
+                        "weight must not be negative but was " + weight);
+                  }
+                  boolean accepting = true;
+                  if (!batch.elements.isEmpty() && batch.weight + weight > maxWeight) {
+                    accepting = downstream.push(batch.copyAndClear());
+                  }
+                  batch.elements.add(element);
+                  batch.weight += weight;
+                  return accepting;
+                }),
+            (batch, downstream) -> {
+              if (!batch.elements.isEmpty() && !downstream.isRejecting()) {
+                downstream.push(batch.copyAndClear());
+              }
+            }));
+  }
+
+  static <T> T singleElement(Stream<T> stream) {
+    return stream
+        .gather(
+            Gatherer.<T, SingleElement<T>, T>of(
+                SingleElement::new,
+                Gatherer.Integrator.<SingleElement<T>, T, T>ofGreedy(
+                    (single, element, downstream) -> {
+                      single.add(element);
+                      return true;
+                    }),
+                SingleElement::merge,
+                (single, downstream) -> downstream.push(single.get())))
+        .toList()
+        .getFirst();
+  }
+
+  private static final class Batch<T> {
+    private final List<T> elements = new ArrayList<>();
+    private long weight;
+
+    List<T> copyAndClear() {
+      List<T> copy = Collections.unmodifiableList(new ArrayList<>(elements));
+      elements.clear();
+      weight = 0;
+      return copy;
+    }
+  }
+
+  private static final class SingleElement<T> {
+    private boolean present;
+    private T element;
+
+    void add(T value) {
+      if (present) {
+        throw new IllegalStateException(
+            "Exactly one element expected but got at least 2: " + Arrays.asList(element, value));
+      }
+      present = true;
+      element = value;
+    }
+
+    SingleElement<T> merge(SingleElement<T> other) {
+      if (other.present) {
+        add(other.element);
+      }
+      return this;
+    }
+
+    T get() {
+      if (!present) {
+        throw new IllegalStateException("Exactly one element expected but got 0: []");
+      }
+      return element;
+    }
+  }
+}
@@ -2,6 +2,18 @@ package de.cronn.commons.lang;
 
 import static org.assertj.core.api.Assertions.*;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import org.junit.jupiter.api.Test;
@@ -44,4 +56,391 @@ class ActionTest {
     assertThat(result).isNull();
     assertThat(numberOfExecutions.get()).isEqualTo(1);
   }
+
+  @Test
+  void testOnce() throws Exception {
+    Action action = numberOfExecutions::incrementAndGet;
+
+    Action once = action.once();
+    once.execute();
+    once.execute();
+
+    assertThat(numberOfExecutions.get()).isEqualTo(1);
+  }
+
+  @Test
+  void testOnce_retriesAfterFailure() throws Exception {
+    Action action =
+        () -> {
+          if (numberOfExecutions.incrementAndGet() == 1) {
+            throw new IOException("first execution fails");
+          }
+        };
+
+    Action once = action.once();
+
+    assertThatExceptionOfType(IOException.class)
+        .isThrownBy(once::execute)
+        .withMessage("first execution fails");
+    once.execute();
+    once.execute();
+    assertThat(numberOfExecutions.get()).isEqualTo(2);
+  }
+
+  @Test
+  void testSingleFlight_concurrentCallersJoinExecutionInProgress() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Action action =
+        () -> {
+          numberOfExecutions.incrementAndGet();
+          started.countDown();
+          release.await();
+        };
+    Action singleFlight = action.singleFlight();
+
+    Thread leader = Thread.ofPlatform().start(singleFlight.toSupplier()::get);
+    started.await();
+    List<Thread> followers = startThreads(5, singleFlight.toSupplier()::get);
+    awaitWaiting(followers);
+    release.countDown();
+    joinAll(leader, followers);
+
+    assertThat(numberOfExecutions.get()).isEqualTo(1);
+
+    singleFlight.execute();
+    assertThat(numberOfExecutions.get()).isEqualTo(2);
+  }
+
+  @Test
+  void testSingleFlight_concurrentCallersReceiveException() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Action action =
+        () -> {
+          started.countDown();
+          release.await();
+          throw new IOException("some test exception");
+        };
+    Action singleFlight = action.singleFlight();
+    Queue<Exception> exceptions = new ConcurrentLinkedQueue<>();
+    Runnable execute =
+        () -> {
+          try {
+            singleFlight.execute();
+          } catch (Exception e) {
+            exceptions.add(e);
+          }
+        };
+
+    Thread leader = Thread.ofPlatform().start(execute);
+    started.await();
+    List<Thread> followers = startThreads(3, execute);
+    awaitWaiting(followers);
+    release.countDown();
+    joinAll(leader, followers);
+
+    assertThat(exceptions)
+        .hasSize(4)
+        .allSatisfy(
+            e -> assertThat(e).isInstanceOf(IOException.class).hasMessage("some test exception"));
+  }
+
+  @Test
+  void testCoalescing() throws Exception {
+    Action action = numberOfExecutions::incrementAndGet;
+
+    Action coalescing = action.coalescing(Duration.ofMillis(200));
+    coalescing.execute();
+    coalescing.execute();
+    coalescing.execute();
+    assertThat(numberOfExecutions.get()).isEqualTo(1);
+
+    Thread.sleep(250);
+    coalescing.execute();
+    coalescing.execute();
+    assertThat(numberOfExecutions.get()).isEqualTo(2);
+  }
+
+  @Test
+  void testCoalescing_trailingExecutionForSuppressedTriggers() throws Exception {
+    CountDownLatch twoExecutions = new CountDownLatch(2);
+    Action action =
+        () -> {
+          numberOfExecutions.incrementAndGet();
+          twoExecutions.countDown();
+        };
+
+    Action coalescing = action.coalescing(Duration.ofMillis(100));
+    coalescing.execute();
+    coalescing.execute();
+    coalescing.execute();
+    assertThat(numberOfExecutions.get()).isEqualTo(1);
+
+    assertThat(twoExecutions.await(5, TimeUnit.SECONDS)).isTrue();
+    Thread.sleep(300);
+    assertThat(numberOfExecutions.get()).isEqualTo(2);
+  }
+
+  @Test
+  void testCoalescing_trailingExecutionForTriggersDuringExecution() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch twoExecutions = new CountDownLatch(2);
+    Action action =
+        () -> {
+          numberOfExecutions.incrementAndGet();
+          started.countDown();
+          twoExecutions.countDown();
+          release.await();
+        };
+    Action coalescing = action.coalescing(Duration.ZERO);
+
+    Thread leader = Thread.ofPlatform().start(coalescing.toSupplier()::get);
+    started.await();
+    List<Thread> followers = startThreads(3, coalescing.toSupplier()::get);
+    awaitWaiting(followers);
+    release.countDown();
+    joinAll(leader, followers);
+
+    assertThat(twoExecutions.await(5, TimeUnit.SECONDS)).isTrue();
+    Thread.sleep(100);
+    assertThat(numberOfExecutions.get()).isEqualTo(2);
+  }
+
+  @Test
+  void testCoalescing_noTrailingExecutionWithoutSuppressedTriggers() throws Exception {
+    Action action = numberOfExecutions::incrementAndGet;
+
+    Action coalescing = action.coalescing(Duration.ofMillis(50));
+    coalescing.execute();
+    Thread.sleep(200);
+
+    assertThat(numberOfExecutions.get()).isEqualTo(1);
+  }
+
+  @Test
+  void testCoalescing_failedExecutionDoesNotStartInterval() throws Exception {
+    Action action =
+        () -> {
+          if (numberOfExecutions.incrementAndGet() == 1) {
+            throw new IOException("first execution fails");
+          }
+        };
+
+    Action coalescing = action.coalescing(Duration.ofMinutes(1));
+
+    assertThatExceptionOfType(IOException.class).isThrownBy(coalescing::execute);
+    coalescing.execute();
+    coalescing.execute();
+    assertThat(numberOfExecutions.get()).isEqualTo(2);
+  }
+
+  @Test
+  void testCoalescing_rejectsNegativeInterval() {
+    Action action = numberOfExecutions::incrementAndGet;
+
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .isThrownBy(() -> action.coalescing(Duration.ofMillis(-1)))
+        .withMessage("minInterval must not be negative but was PT-0.001S");
+  }
+
+  @Test
+  void testTimed() throws Exception {
+    ActionMetrics.reset();
+    Action action = () -> Thread.sleep(5);
+    Action timed = action.timed("ActionTest.testTimed");
+
+    timed.execute();
+    timed.execute();
+
+    LatencyHistogram.Snapshot snapshot = ActionMetrics.snapshot("ActionTest.testTimed");
+    assertThat(snapshot.count()).isEqualTo(2);
+    assertThat(snapshot.p50Nanos()).isGreaterThanOrEqualTo(Duration.ofMillis(4).toNanos());
+    assertThat(ActionMetrics.snapshot()).containsKey("ActionTest.testTimed");
+  }
+
+  @Test
+  void testTimed_recordsFailedExecutions() {
+    ActionMetrics.reset();
+    Action action =
+        () -> {
+          throw new IOException("some test exception");
+        };
+
+    assertThatExceptionOfType(IOException.class)
+        .isThrownBy(() -> action.timed("ActionTest.testTimed_failing").execute())
+        .withMessage("some test exception");
+
+    assertThat(ActionMetrics.snapshot("ActionTest.testTimed_failing").count()).isEqualTo(1);
+  }
+
+  @Test
+  void testTimed_resetKeepsExistingActionsRecording() throws Exception {
+    Action timed = numberOfExecutions::incrementAndGet;
+    timed = timed.timed("ActionTest.testTimed_reset");
+    timed.execute();
+
+    ActionMetrics.reset();
+    assertThat(ActionMetrics.snapshot("ActionTest.testTimed_reset").count()).isZero();
+
+    timed.execute();
+    assertThat(ActionMetrics.snapshot("ActionTest.testTimed_reset").count()).isEqualTo(1);
+  }
+
+  @Test
+  void testLimited() throws Exception {
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.fixed(2);
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    Action action =
+        () -> {
+          maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+          Thread.sleep(5);
+          running.decrementAndGet();
+        };
+
+    Action.runAll(Collections.nCopies(6, action.limited(limiter)), 6);
+
+    assertThat(maxRunning.get()).isEqualTo(2);
+    assertThat(limiter.inFlight()).isZero();
+    assertThat(limiter.queueDepth()).isZero();
+  }
+
+  @Test
+  void testLimited_releasesPermitOnFailure() {
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.fixed(1);
+    Action action =
+        () -> {
+          throw new IOException("some test exception");
+        };
+
+    assertThatExceptionOfType(IOException.class)
+        .isThrownBy(() -> action.limited(limiter).execute())
+        .withMessage("some test exception");
+
+    assertThat(limiter.inFlight()).isZero();
+  }
+
+  @Test
+  void testToCompletableFuture() throws Exception {
+    Action action = numberOfExecutions::incrementAndGet;
+
+    CompletableFuture<Void> future = action.toCompletableFuture(Runnable::run);
+
+    assertThat(future).isCompleted();
+    assertThat(future.get()).isNull();
+    assertThat(numberOfExecutions.get()).isEqualTo(1);
+  }
+
+  @Test
+  void testToCompletableFuture_completesExceptionally() {
+    Action action =
+        () -> {
+          throw new IOException("some test exception");
+        };
+
+    assertThat(action.toCompletableFuture())
+        .failsWithin(Duration.ofSeconds(10))
+        .withThrowableOfType(ExecutionException.class)
+        .havingCause()
+        .isInstanceOf(IOException.class)
+        .withMessage("some test exception");
+  }
+
+  @Test
+  void testToCompletableFuture_runsOnVirtualThread() throws Exception {
+    AtomicBoolean virtual = new AtomicBoolean();
+    Action action = () -> virtual.set(Thread.currentThread().isVirtual());
+
+    action.toCompletableFuture().get();
+
+    assertThat(virtual).isTrue();
+  }
+
+  @Test
+  void testRunAll() throws Exception {
+    AtomicInteger concurrentExecutions = new AtomicInteger();
+    AtomicInteger maxConcurrentExecutions = new AtomicInteger();
+    List<Action> actions = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      actions.add(
+          () -> {
+            int current = concurrentExecutions.incrementAndGet();
+            maxConcurrentExecutions.accumulateAndGet(current, Math::max);
+            Thread.sleep(5);
+            concurrentExecutions.decrementAndGet();
+            numberOfExecutions.incrementAndGet();
+          });
+    }
+
+    Action.runAll(actions, 3);
+
+    assertThat(numberOfExecutions.get()).isEqualTo(20);
+    assertThat(maxConcurrentExecutions.get()).isBetween(1, 3);
+  }
+
+  @Test
+  void testRunAll_empty() throws Exception {
+    Action.runAll(List.of(), 3);
+  }
+
+  @Test
+  void testRunAll_cancelsOtherActionsAndCollectsSuppressedExceptions() {
+    CountDownLatch running = new CountDownLatch(2);
+    Action blocking =
+        () -> {
+          running.countDown();
+          Thread.sleep(Duration.ofMinutes(1));
+        };
+    Action failing =
+        () -> {
+          running.await();
+          throw new IOException("some test exception");
+        };
+    Action notStarted = numberOfExecutions::incrementAndGet;
+
+    assertThatExceptionOfType(IOException.class)
+        .isThrownBy(
+            () -> Action.runAll(List.of(blocking, blocking, failing, notStarted, notStarted), 3))
+        .withMessage("some test exception")
+        .satisfies(
+            e ->
+                assertThat(e.getSuppressed())
+                    .hasSize(2)
+                    .allSatisfy(
+                        suppressed ->
+                            assertThat(suppressed).isInstanceOf(InterruptedException.class)));
+    assertThat(numberOfExecutions.get()).isZero();
+  }
+
+  @Test
+  void testRunAll_rejectsNonPositiveParallelism() {
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .isThrownBy(() -> Action.runAll(List.of(), 0))
+        .withMessage("maxParallelism must be positive but was 0");
+  }
+
+  private static List<Thread> startThreads(int numberOfThreads, Runnable runnable) {
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < numberOfThreads; i++) {
+      threads.add(Thread.ofPlatform().start(runnable));
+    }
+    return threads;
+  }
+
+  private static void awaitWaiting(List<Thread> threads) throws InterruptedException {
+    for (Thread thread : threads) {
+      while (thread.getState() != Thread.State.WAITING) {
+        Thread.sleep(1);
+      }
+    }
+  }
+
+  private static void joinAll(Thread leader, List<Thread> followers) throws InterruptedException {
+    leader.join();
+    for (Thread follower : followers) {
+      follower.join();
+    }
+  }
 }
@@ -2,7 +2,11 @@ package de.cronn.commons.lang;
 
 import static org.assertj.core.api.Assertions.*;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 
@@ -204,6 +208,126 @@ class AlphanumericComparatorTest {
     assertThat(AlphanumericComparator.isAfterOrEqual("11.0", "12")).isFalse();
   }
 
+  @Test
+  void comparingExtractsKey() {
+    List<Path> list =
+        Stream.of("file-10.doc", "file-2.doc", "file-1.doc")
+            .map(Path::of)
+            .sorted(AlphanumericComparator.comparing(Path::toString))
+            .toList();
+
+    assertThat(list)
+        .extracting(Path::toString)
+        .containsExactly("file-1.doc", "file-2.doc", "file-10.doc");
+  }
+
+  @Test
+  void comparingWithCacheOrdersLikeCompare() {
+    List<String> strings =
+        List.of(
+            "",
+            " ",
+            "a",
+            "A",
+            "è",
+            "e",
+            "ě",
+            "file-2.doc",
+            "file-02.doc",
+            "file-10.doc",
+            "123",
+            "abc",
+            "abc  \t",
+            "12a",
+            "120",
+            "1.0.1-b",
+            "20.10-beta1",
+            "abc-" + Long.MAX_VALUE,
+            "abc-" + (Long.MAX_VALUE - 1),
+            "100000000000000000000000000",
+            "10",
+            "sölo",
+            "sylo",
+            "中文-2",
+            "日本-10",
+            "Ωmega",
+            "ÿ",
+            "€",
+            "😀");
+    List<String> withNull = new ArrayList<>(strings);
+    withNull.add(null);
+    Comparator<String> cached =
+        AlphanumericComparator.comparing(
+            Function.identity(), new AlphanumericComparator.KeyCache(8));
+
+    for (String s1 : withNull) {
+      for (String s2 : withNull) {
+        assertThat(Integer.signum(cached.compare(s1, s2)))
+            .as("compare(%s, %s)", s1, s2)
+            .isEqualTo(Integer.signum(comparator.compare(s1, s2)));
+      }
+    }
+  }
+
+  @Test
+  void keyCacheCountsHitsAndMisses() {
+    AlphanumericComparator.KeyCache cache = new AlphanumericComparator.KeyCache(100);
+    Comparator<String> cached = AlphanumericComparator.comparing(Function.identity(), cache);
+
+    Stream.of("file-10", "file-2", "file-1").sorted(cached).toList();
+    long missCount = cache.missCount();
+    Stream.of("file-10", "file-2", "file-1").sorted(cached).toList();
+
+    assertThat(missCount).isEqualTo(3);
+    assertThat(cache.missCount()).isEqualTo(3);
+    assertThat(cache.hitCount()).isPositive();
+    assertThat(cache.hitRate()).isGreaterThan(0.5);
+    assertThat(cache.size()).isEqualTo(3);
+    assertThat(cache)
+        .hasToString(
+            "KeyCache[size=3, hits=%d, misses=3, hitRate=%.3f]"
+                .formatted(cache.hitCount(), cache.hitRate()));
+
+    cache.clear();
+
+    assertThat(cache.size()).isZero();
+    assertThat(cache.hitRate()).isZero();
+  }
+
+  @Test
+  void keyCacheEvictsUnusedStrings() {
+    AlphanumericComparator.KeyCache cache = new AlphanumericComparator.KeyCache(4);
+
+    cache.get("a");
+    cache.get("b");
+    cache.get("c");
+    cache.get("a");
+    cache.get("d");
+    cache.get("e");
+    cache.get("a");
+    cache.get("b");
+
+    assertThat(cache.size()).isLessThanOrEqualTo(4);
+    assertThat(cache.hitCount()).isEqualTo(1);
+    assertThat(cache.missCount()).isEqualTo(7);
+  }
+
+  @Test
+  void keyIsCompact() {
+    String label = "invoice-2024-10-19-customer-42";
+
+    assertThat(label).hasSize(30);
+    assertThat(comparator.key(label).sizeInBytes()).isLessThan(400);
+    assertThat(comparator.key("x".repeat(30)).sizeInBytes()).isLessThan(400);
+  }
+
+  @Test
+  void keyCacheRejectsTooSmallMaximumSize() {
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .isThrownBy(() -> new AlphanumericComparator.KeyCache(1))
+        .withMessage("maximumSize must be at least 2 but was 1");
+  }
+
   private void assertComparesLessThan(String s1, String s2) {
     assertThat(comparator.compare(s1, s2)).isEqualTo(-1);
     assertThat(comparator.compare(s2, s1)).isEqualTo(1);
@@ -0,0 +1,179 @@
+package de.cronn.commons.lang;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class BatchingExecutorTest {
+
+  private final Queue<List<Integer>> batches = new ConcurrentLinkedQueue<>();
+
+  @Test
+  void testBatchesAreCutBySize() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    try (BatchingExecutor<Integer> executor =
+        BatchingExecutor.create(
+            batch -> {
+              awaitUninterruptibly(release);
+              batches.add(batch);
+            },
+            3,
+            Duration.ofMinutes(1),
+            100)) {
+      List<CompletableFuture<Void>> futures = new ArrayList<>();
+      for (int i = 0; i < 9; i++) {
+        futures.add(executor.submit(i));
+      }
+      release.countDown();
+      CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+    }
+
+    assertThat(batches).containsExactly(List.of(0, 1, 2), List.of(3, 4, 5), List.of(6, 7, 8));
+  }
+
+  @Test
+  void testBatchesAreCutByLatency() throws Exception {
+    try (BatchingExecutor<Integer> executor =
+        BatchingExecutor.create(batches::add, 100, Duration.ofMillis(20), 100)) {
+      executor.submit(1);
+      executor.submit(2).get(10, TimeUnit.SECONDS);
+
+      assertThat(batches).containsExactly(List.of(1, 2));
+    }
+  }
+
+  @Test
+  void testConcurrentSubmitters() throws Exception {
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    try (BatchingExecutor<Integer> executor =
+        BatchingExecutor.create(batches::add, 50, Duration.ofMillis(5), 200)) {
+      List<Thread> submitters = new ArrayList<>();
+      for (int thread = 0; thread < 8; thread++) {
+        int offset = thread * 1000;
+        submitters.add(
+            Thread.ofVirtual()
+                .start(
+                    () -> {
+                      for (int i = 0; i < 1000; i++) {
+                        try {
+                          CompletableFuture<Void> future = executor.submit(offset + i);
+                          synchronized (futures) {
+                            futures.add(future);
+                          }
+                        } catch (InterruptedException e) {
+                          throw new IllegalStateException(e);
+                        }
+                      }
+                    }));
+      }
+      for (Thread submitter : submitters) {
+        submitter.join();
+      }
+    }
+
+    assertThat(futures).hasSize(8000).allSatisfy(future -> assertThat(future).isCompleted());
+    assertThat(batches).allSatisfy(batch -> assertThat(batch).hasSizeBetween(1, 50));
+    assertThat(batches.stream().mapToInt(List::size).sum()).isEqualTo(8000);
+  }
+
+  @Test
+  void testHandlerFailureCompletesBatchExceptionally() {
+    BatchingExecutor<Integer> executor =
+        BatchingExecutor.create(
+            batch -> {
+              throw new IllegalStateException("some test exception");
+            },
+            10,
+            Duration.ZERO,
+            10);
+    try (executor) {
+      assertThat(executor.submit(1))
+          .failsWithin(Duration.ofSeconds(10))
+          .withThrowableOfType(ExecutionException.class)
+          .havingCause()
+          .isInstanceOf(IllegalStateException.class)
+          .withMessage("some test exception");
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Test
+  void testCloseProcessesQueuedElements() throws Exception {
+    CompletableFuture<Void> future;
+    try (BatchingExecutor<Integer> executor =
+        BatchingExecutor.create(batches::add, 100, Duration.ofMinutes(1), 100)) {
+      future = executor.submit(1);
+    }
+
+    assertThat(future).isCompleted();
+    assertThat(batches).containsExactly(List.of(1));
+  }
+
+  @Test
+  void testSubmitAfterClose() {
+    BatchingExecutor<Integer> executor =
+        BatchingExecutor.create(batches::add, 100, Duration.ofMinutes(1), 100);
+    executor.close();
+
+    assertThatExceptionOfType(RejectedExecutionException.class)
+        .isThrownBy(() -> executor.submit(1))
+        .withMessage("BatchingExecutor is closed");
+  }
+
+  @Test
+  void testForActions() throws Exception {
+    List<String> executed = new ArrayList<>();
+    CompletableFuture<Void> first;
+    CompletableFuture<Void> failing;
+    CompletableFuture<Void> last;
+    try (BatchingExecutor<Action> executor =
+        BatchingExecutor.forActions(10, Duration.ofMinutes(1), 10)) {
+      first = executor.submit(() -> executed.add("first"));
+      failing =
+          executor.submit(
+              () -> {
+                throw new IOException("some test exception");
+              });
+      last = executor.submit(() -> executed.add("last"));
+    }
+
+    assertThat(executed).containsExactly("first", "last");
+    assertThat(first).isCompleted();
+    assertThat(last).isCompleted();
+    assertThat(failing).isCompletedExceptionally();
+  }
+
+  @Test
+  void testInvalidArguments() {
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .isThrownBy(() -> BatchingExecutor.create(batches::add, 0, Duration.ZERO, 1))
+        .withMessage("maxBatchSize must be positive but was 0");
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .isThrownBy(() -> BatchingExecutor.create(batches::add, 1, Duration.ZERO, 0))
+        .withMessage("capacity must be positive but was 0");
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .isThrownBy(() -> BatchingExecutor.create(batches::add, 1, Duration.ofMillis(-1), 1))
+        .withMessage("maxLatency must not be negative but was PT-0.001S");
+  }
+
+  private static void awaitUninterruptibly(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,151 @@
+package de.cronn.commons.lang;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class ConcurrencyLimiterTest {
+
+  private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+  private static final long SLOW = TimeUnit.SECONDS.toNanos(1);
+
+  @Test
+  void testFixed() throws Exception {
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.fixed(2);
+
+    limiter.acquire();
+    limiter.acquire();
+
+    assertThat(limiter.limit()).isEqualTo(2);
+    assertThat(limiter.inFlight()).isEqualTo(2);
+    assertThat(limiter).hasToString("FixedConcurrencyLimiter[limit=2, inFlight=2, queueDepth=0]");
+  }
+
+  @Test
+  void testFixed_waitsForPermit() throws Exception {
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.fixed(1);
+    limiter.acquire();
+
+    Thread waiter = Thread.ofPlatform().start(() -> acquireAndRelease(limiter));
+    awaitQueueDepth(limiter, 1);
+    assertThat(waiter.isAlive()).isTrue();
+
+    limiter.release(FAST, true);
+    waiter.join();
+
+    assertThat(limiter.inFlight()).isZero();
+    assertThat(limiter.queueDepth()).isZero();
+  }
+
+  @Test
+  void testFixed_interruptedWhileWaiting() throws Exception {
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.fixed(1);
+    limiter.acquire();
+    Throwable[] failure = new Throwable[1];
+
+    Thread waiter =
+        Thread.ofPlatform()
+            .start(
+                () -> {
+                  try {
+                    limiter.acquire();
+                  } catch (Throwable e) {
+                    failure[0] = e;
+                  }
+                });
+    awaitQueueDepth(limiter, 1);
+    waiter.interrupt();
+    waiter.join();
+
+    assertThat(failure[0]).isInstanceOf(InterruptedException.class);
+    assertThat(limiter.inFlight()).isEqualTo(1);
+    assertThat(limiter.queueDepth()).isZero();
+  }
+
+  @Test
+  void testFixed_rejectsNonPositiveLimit() {
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .isThrownBy(() -> ConcurrencyLimiter.fixed(0))
+        .withMessage("maxConcurrency must be positive but was 0");
+  }
+
+  @Test
+  void testAimd_increasesAdditivelyWhileLimitIsUsed() throws Exception {
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.aimd(2, 3, Duration.ofMillis(100));
+
+    for (int i = 0; i < 2; i++) {
+      limiter.acquire();
+      limiter.acquire();
+      limiter.release(FAST, true);
+      limiter.release(FAST, true);
+    }
+    assertThat(limiter.limit()).isEqualTo(3);
+
+    for (int i = 0; i < 10; i++) {
+      limiter.acquire();
+      limiter.acquire();
+      limiter.release(FAST, true);
+      limiter.release(FAST, true);
+    }
+    assertThat(limiter.limit()).isEqualTo(3);
+  }
+
+  @Test
+  void testAimd_doesNotIncreaseWhenLimitIsNotUsed() throws Exception {
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.aimd(10, 100, Duration.ofMillis(100));
+
+    for (int i = 0; i < 100; i++) {
+      limiter.acquire();
+      limiter.release(FAST, true);
+    }
+
+    assertThat(limiter.limit()).isEqualTo(10);
+  }
+
+  @Test
+  void testAimd_decreasesMultiplicativelyOnSlowOrFailedExecutions() throws Exception {
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.aimd(100, 100, Duration.ofMillis(100));
+
+    limiter.acquire();
+    limiter.release(SLOW, true);
+    assertThat(limiter.limit()).isEqualTo(90);
+
+    limiter.acquire();
+    limiter.release(FAST, false);
+    assertThat(limiter.limit()).isEqualTo(81);
+
+    for (int i = 0; i < 100; i++) {
+      limiter.acquire();
+      limiter.release(FAST, false);
+    }
+    assertThat(limiter.limit()).isEqualTo(1);
+  }
+
+  @Test
+  void testAimd_rejectsInvalidArguments() {
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .isThrownBy(() -> ConcurrencyLimiter.aimd(5, 4, Duration.ofMillis(100)))
+        .withMessage("initialLimit must be between 1 and 4 but was 5");
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .isThrownBy(() -> ConcurrencyLimiter.aimd(1, 4, Duration.ZERO))
+        .withMessage("latencyThreshold must be positive but was PT0S");
+  }
+
+  private static void acquireAndRelease(ConcurrencyLimiter limiter) {
+    try {
+      limiter.acquire();
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+    limiter.release(FAST, true);
+  }
+
+  private static void awaitQueueDepth(ConcurrencyLimiter limiter, int queueDepth)
+      throws InterruptedException {
+    while (limiter.queueDepth() != queueDepth) {
+      Thread.sleep(1);
+    }
+  }
+}
@@ -0,0 +1,200 @@
+package de.cronn.commons.lang;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class IntBitmapSetTest {
+
+  @Test
+  void testAddContainsRemove() {
+    IntBitmapSet set = new IntBitmapSet();
+
+    assertThat(set.add(42)).isTrue();
+    assertThat(set.add(42)).isFalse();
+    assertThat(set.add(-7)).isTrue();
+    assertThat(set.add(Integer.MAX_VALUE)).isTrue();
+    assertThat(set.add(Integer.MIN_VALUE)).isTrue();
+
+    assertThat(set.contains(42)).isTrue();
+    assertThat(set.contains(43)).isFalse();
+    assertThat(set.cardinality()).isEqualTo(4);
+    assertThat(set).containsExactly(Integer.MIN_VALUE, -7, 42, Integer.MAX_VALUE);
+
+    assertThat(set.remove(42)).isTrue();
+    assertThat(set.remove(42)).isFalse();
+    assertThat(set).containsExactly(Integer.MIN_VALUE, -7, Integer.MAX_VALUE);
+  }
+
+  @Test
+  void testSetInterface() {
+    IntBitmapSet set = SetUtils.intSet(3, 1, 2);
+
+    assertThat(set.contains((Object) 2)).isTrue();
+    assertThat(set.contains("2")).isFalse();
+    assertThat(set.remove((Object) 2L)).isFalse();
+    assertThat(set).isEqualTo(Set.of(1, 2, 3));
+    assertThat(Set.of(1, 2, 3)).isEqualTo(set);
+    assertThat(set).hasSameHashCodeAs(Set.of(1, 2, 3));
+    assertThat(set).hasToString("[1, 2, 3]");
+  }
+
+  @Test
+  void testTransitionsBetweenArrayAndBitmap() {
+    IntBitmapSet set = new IntBitmapSet();
+    IntStream.range(0, 10_000).map(i -> i * 3).forEach(set::add);
+
+    assertThat(set.cardinality()).isEqualTo(10_000);
+    assertThat(set.contains(29_997)).isTrue();
+    assertThat(set.contains(29_998)).isFalse();
+
+    IntStream.range(0, 9_000).map(i -> i * 3).forEach(set::remove);
+
+    assertThat(set.intStream().toArray())
+        .containsExactly(IntStream.range(9_000, 10_000).map(i -> i * 3).toArray());
+  }
+
+  @Test
+  void testRunOptimize_denseRange() {
+    IntBitmapSet set = new IntBitmapSet();
+    IntStream.range(0, 1_000_000).forEach(set::add);
+    long bitmapBytes = set.sizeInBytes();
+
+    assertThat(set.runOptimize()).isTrue();
+
+    assertThat(bitmapBytes).isLessThan(200_000);
+    assertThat(set.sizeInBytes()).isLessThan(1_000);
+    assertThat(set.cardinality()).isEqualTo(1_000_000);
+    assertThat(set.contains(999_999)).isTrue();
+    assertThat(set.contains(1_000_000)).isFalse();
+    assertThat(set.intStream().sum()).isEqualTo(IntStream.range(0, 1_000_000).sum());
+    assertThat(set.runOptimize()).isFalse();
+
+    assertThat(set.remove(500_000)).isTrue();
+    assertThat(set.add(2_000_000)).isTrue();
+    assertThat(set.cardinality()).isEqualTo(1_000_000);
+    assertThat(set.contains(500_000)).isFalse();
+  }
+
+  @Test
+  void testRunOptimize_keepsSparseContainers() {
+    IntBitmapSet set = SetUtils.intSet(1, 5, 9, 100_000);
+
+    assertThat(set.runOptimize()).isFalse();
+  }
+
+  @Test
+  void testSetOperations() {
+    IntBitmapSet set1 = SetUtils.intSet(1, 2, 3, 70_000);
+    IntBitmapSet set2 = SetUtils.intSet(2, 3, 4, -1);
+
+    assertThat(set1.and(set2)).containsExactly(2, 3);
+    assertThat(set1.or(set2)).containsExactly(-1, 1, 2, 3, 4, 70_000);
+    assertThat(set1.andNot(set2)).containsExactly(1, 70_000);
+    assertThat(set1).containsExactly(1, 2, 3, 70_000);
+    assertThat(set2).containsExactly(-1, 2, 3, 4);
+  }
+
+  @Test
+  void testSetOperations_resultsAreIndependentOfOperands() {
+    IntBitmapSet set1 = SetUtils.intSet(1, 2);
+    IntBitmapSet union = set1.or(new IntBitmapSet());
+
+    union.add(3);
+    set1.remove(1);
+
+    assertThat(union).containsExactly(1, 2, 3);
+    assertThat(set1).containsExactly(2);
+  }
+
+  @Test
+  void testSetOperations_agreeWithTreeSet() {
+    Random random = new Random(42);
+    for (int round = 0; round < 20; round++) {
+      TreeSet<Integer> expected1 = randomValues(random);
+      TreeSet<Integer> expected2 = randomValues(random);
+      IntBitmapSet set1 = toBitmapSet(expected1);
+      IntBitmapSet set2 = toBitmapSet(expected2);
+      if (random.nextBoolean()) {
+        set1.runOptimize();
+      }
+      if (random.nextBoolean()) {
+        set2.runOptimize();
+      }
+
+      assertThat(set1.and(set2).intStream().toArray())
+          .isEqualTo(toArray(SetUtils.intersection(expected1, expected2)));
+      assertThat(set1.or(set2).intStream().toArray())
+          .isEqualTo(toArray(SetUtils.union(expected1, expected2)));
+      assertThat(set1.andNot(set2).intStream().toArray())
+          .isEqualTo(toArray(SetUtils.difference(expected1, expected2)));
+    }
+  }
+
+  @Test
+  void testRemoveIfAndRetainAll() {
+    IntBitmapSet set = new IntBitmapSet();
+    IntStream.range(0, 100).forEach(set::add);
+
+    assertThat(set.removeIf(value -> value % 2 == 0)).isTrue();
+    assertThat(set.removeIf(value -> value > 1_000)).isFalse();
+    assertThat(set.retainAll(List.of(1, 3, 5, 200))).isTrue();
+    assertThat(set.removeAll(Set.of(3, 4))).isTrue();
+
+    assertThat(set).containsExactly(1, 5);
+  }
+
+  @Test
+  void testIteratorDoesNotSupportRemove() {
+    IntBitmapSet set = SetUtils.intSet(1);
+
+    assertThatExceptionOfType(UnsupportedOperationException.class)
+        .isThrownBy(
+            () -> {
+              var iterator = set.iterator();
+              iterator.next();
+              iterator.remove();
+            });
+  }
+
+  @Test
+  void testClear() {
+    IntBitmapSet set = SetUtils.intSet(1, 100_000);
+
+    set.clear();
+
+    assertThat(set).isEmpty();
+    assertThat(set.add(7)).isTrue();
+    assertThat(set).containsExactly(7);
+  }
+
+  private static TreeSet<Integer> randomValues(Random random) {
+    TreeSet<Integer> values = new TreeSet<>();
+    int base = random.nextInt(4) * 65_536;
+    switch (random.nextInt(3)) {
+      case 0 -> random.ints(500, base, base + 200_000).forEach(values::add);
+      case 1 -> random.ints(60_000, base, base + 100_000).forEach(values::add);
+      default -> {
+        int start = base + random.nextInt(1_000);
+        IntStream.range(start, start + 150_000).filter(i -> i % 1_000 != 0).forEach(values::add);
+      }
+    }
+    return values;
+  }
+
+  private static int[] toArray(Set<Integer> values) {
+    return values.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  private static IntBitmapSet toBitmapSet(Set<Integer> values) {
+    IntBitmapSet set = new IntBitmapSet();
+    new HashSet<>(values).forEach(set::add);
+    return set;
+  }
+}
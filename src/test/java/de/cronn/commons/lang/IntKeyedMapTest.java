@@ -0,0 +1,113 @@
+package de.cronn.commons.lang;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class IntKeyedMapTest {
+
+  @Test
+  void testPutAndGet() {
+    IntKeyedMap<String> map = new IntKeyedMap<>();
+
+    assertThat(map.put(Integer.MIN_VALUE, "min")).isNull();
+    assertThat(map.put(Integer.MAX_VALUE, "max")).isNull();
+    assertThat(map.put(-1, "b")).isNull();
+    assertThat(map.put(0, null)).isNull();
+    assertThat(map.put(-1, "c")).isEqualTo("b");
+
+    assertThat(map.size()).isEqualTo(4);
+    assertThat(map.get(Integer.MIN_VALUE)).isEqualTo("min");
+    assertThat(map.get(Integer.MAX_VALUE)).isEqualTo("max");
+    assertThat(map.get(-1)).isEqualTo("c");
+    assertThat(map.get(0)).isNull();
+    assertThat(map.containsKey(0)).isTrue();
+    assertThat(map.get(1)).isNull();
+    assertThat(map.containsKey(1)).isFalse();
+    assertThat(map.getOrDefault(1, "default")).isEqualTo("default");
+    assertThat(map.getOrDefault(0, "default")).isNull();
+    assertThat(map.keys()).containsExactly(Integer.MIN_VALUE, Integer.MAX_VALUE, -1, 0);
+    assertThat(map).hasToString("{-2147483648=min, 2147483647=max, -1=c, 0=null}");
+  }
+
+  @Test
+  void testInsertionOrder() {
+    IntKeyedMap<String> map = new IntKeyedMap<>(1);
+    map.put(3, "three");
+    map.put(-1, "minus one");
+    map.put(2, "two");
+    map.put(-1, "MINUS ONE");
+
+    List<String> entries = new ArrayList<>();
+    map.forEach((key, value) -> entries.add(key + ":" + value));
+
+    assertThat(entries).containsExactly("3:three", "-1:MINUS ONE", "2:two");
+    assertThat(map.keys()).containsExactly(3, -1, 2);
+    assertThat(map.values()).containsExactly("three", "MINUS ONE", "two");
+    assertThat(map).hasToString("{3=three, -1=MINUS ONE, 2=two}");
+  }
+
+  @Test
+  void testManyEntries() {
+    IntKeyedMap<Integer> map = new IntKeyedMap<>(0);
+    IntStream.range(0, 100_000).map(i -> i * 1024).forEach(key -> map.put(key, key));
+
+    assertThat(map.size()).isEqualTo(100_000);
+    IntStream.range(0, 100_000)
+        .map(i -> i * 1024)
+        .forEach(key -> assertThat(map.get(key)).isEqualTo(key));
+    assertThat(map.containsKey(1)).isFalse();
+    assertThat(map.values()).startsWith(0, 1024, 2048);
+  }
+
+  @Test
+  void testManyRandomEntries() {
+    IntKeyedMap<Integer> map = new IntKeyedMap<>();
+    int[] keys = new Random(1).ints().distinct().limit(100_000).toArray();
+    for (int key : keys) {
+      map.put(key, ~key);
+    }
+
+    assertThat(map.size()).isEqualTo(100_000);
+    for (int key : keys) {
+      assertThat(map.get(key)).isEqualTo(~key);
+    }
+    assertThat(map.keys().toArray()).isEqualTo(keys);
+  }
+
+  @Test
+  void testEqualsAndHashCode() {
+    IntKeyedMap<String> map1 = new IntKeyedMap<>();
+    map1.put(1, "a");
+    map1.put(Integer.MIN_VALUE, "b");
+    IntKeyedMap<String> map2 = new IntKeyedMap<>();
+    map2.put(Integer.MIN_VALUE, "b");
+    map2.put(1, "a");
+
+    assertThat(map1).isEqualTo(map2).hasSameHashCodeAs(map2);
+    map2.put(Integer.MIN_VALUE, "c");
+    assertThat(map1).isNotEqualTo(map2);
+  }
+
+  @Test
+  void testValuesIsUnmodifiable() {
+    IntKeyedMap<String> map = new IntKeyedMap<>();
+    map.put(1, "a");
+
+    assertThatExceptionOfType(UnsupportedOperationException.class)
+        .isThrownBy(() -> map.values().add("b"));
+    assertThatExceptionOfType(IndexOutOfBoundsException.class)
+        .isThrownBy(() -> map.values().get(1));
+  }
+
+  @Test
+  void testRejectsNegativeExpectedSize() {
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .isThrownBy(() -> new IntKeyedMap<>(-1))
+        .withMessage("expectedSize must not be negative but was -1");
+  }
+}
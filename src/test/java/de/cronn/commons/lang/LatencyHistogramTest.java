@@ -0,0 +1,139 @@
+package de.cronn.commons.lang;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+  @Test
+  void testEmpty() {
+    LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+
+    assertThat(snapshot.count()).isZero();
+    assertThat(snapshot.meanNanos()).isZero();
+    assertThat(snapshot.maxNanos()).isZero();
+    assertThat(snapshot.p99Nanos()).isZero();
+  }
+
+  @Test
+  void testSmallValuesAreExact() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int value = 1; value <= 20; value++) {
+      histogram.record(value);
+    }
+
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    assertThat(snapshot.count()).isEqualTo(20);
+    assertThat(snapshot.percentileNanos(0)).isEqualTo(1);
+    assertThat(snapshot.p50Nanos()).isEqualTo(10);
+    assertThat(snapshot.percentileNanos(95)).isEqualTo(19);
+    assertThat(snapshot.percentileNanos(100)).isEqualTo(20);
+    assertThat(snapshot.meanNanos()).isEqualTo(10.5);
+  }
+
+  @Test
+  void testPercentiles_withinRelativeError() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 100_000; i++) {
+      histogram.record(Duration.ofNanos(i * 1_000L));
+    }
+
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    assertThat(snapshot.p50Nanos()).isCloseTo(50_000_000L, withinPercentage(3.2));
+    assertThat(snapshot.p99Nanos()).isCloseTo(99_000_000L, withinPercentage(3.2));
+    assertThat(snapshot.p999Nanos()).isCloseTo(99_900_000L, withinPercentage(3.2));
+    assertThat(snapshot.maxNanos()).isEqualTo(100_000_000L);
+    assertThat(snapshot.percentileNanos(100)).isEqualTo(100_000_000L);
+    assertThat(snapshot.toString())
+        .startsWith("count=100000, mean=50000500ns, p50=50331647ns, p99=100000000ns");
+  }
+
+  @Test
+  void testBucketBoundaries() {
+    for (long value : List.of(0L, 31L, 32L, 63L, 64L, 65L, 1_000_000L, Long.MAX_VALUE)) {
+      int bucket = LatencyHistogram.bucketIndex(value);
+      assertThat(LatencyHistogram.highestValueInBucket(bucket)).isGreaterThanOrEqualTo(value);
+      if (bucket > 0) {
+        assertThat(LatencyHistogram.highestValueInBucket(bucket - 1)).isLessThan(value);
+      }
+    }
+    for (int i = 0; i < 10_000; i++) {
+      long value = ThreadLocalRandom.current().nextLong(0, Long.MAX_VALUE);
+      long highest = LatencyHistogram.highestValueInBucket(LatencyHistogram.bucketIndex(value));
+      assertThat(highest - value).isBetween(0L, value / 32);
+    }
+  }
+
+  @Test
+  void testNegativeValuesAreRecordedAsZero() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(-5);
+
+    assertThat(histogram.snapshot().count()).isEqualTo(1);
+    assertThat(histogram.snapshot().maxNanos()).isZero();
+  }
+
+  @Test
+  void testConcurrentRecording() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    IntStream.range(0, 1_000_000).parallel().forEach(histogram::record);
+
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    assertThat(snapshot.count()).isEqualTo(1_000_000);
+    assertThat(snapshot.maxNanos()).isEqualTo(999_999);
+    assertThat(snapshot.meanNanos()).isEqualTo(499_999.5);
+  }
+
+  @Test
+  void testValuesAboveTrackableRangeAreClamped() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(Duration.ofDays(2));
+
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    assertThat(snapshot.count()).isEqualTo(1);
+    assertThat(snapshot.maxNanos()).isEqualTo(Duration.ofDays(2).toNanos());
+    assertThat(snapshot.meanNanos()).isEqualTo(Duration.ofDays(2).toNanos());
+    assertThat(snapshot.p50Nanos())
+        .isCloseTo(LatencyHistogram.MAX_TRACKABLE_NANOS, withinPercentage(3.2));
+  }
+
+  @Test
+  void testStripesAreAddedOnlyOnContention() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    IntStream.range(0, 1_000).forEach(histogram::record);
+
+    assertThat(histogram.stripeCount()).isEqualTo(1);
+
+    IntStream.range(0, 1_000_000).parallel().forEach(histogram::record);
+
+    assertThat(histogram.stripeCount()).isBetween(1, 16);
+    assertThat(Integer.bitCount(histogram.stripeCount())).isEqualTo(1);
+    assertThat(histogram.snapshot().count()).isEqualTo(1_001_000);
+  }
+
+  @Test
+  void testReset() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(1_000);
+
+    histogram.reset();
+
+    assertThat(histogram.snapshot().count()).isZero();
+    assertThat(histogram.snapshot().maxNanos()).isZero();
+  }
+
+  @Test
+  void testPercentile_rejectsInvalidValue() {
+    LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .isThrownBy(() -> snapshot.percentileNanos(100.5))
+        .withMessage("percentile must be between 0 and 100 but was 100.5");
+  }
+}
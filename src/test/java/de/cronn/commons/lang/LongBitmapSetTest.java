@@ -0,0 +1,103 @@
+package de.cronn.commons.lang;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+class LongBitmapSetTest {
+
+  @Test
+  void testAddContainsRemove() {
+    LongBitmapSet set = new LongBitmapSet();
+
+    assertThat(set.add(42L)).isTrue();
+    assertThat(set.add(42L)).isFalse();
+    assertThat(set.add(-1L)).isTrue();
+    assertThat(set.add(1L << 40)).isTrue();
+    assertThat(set.add(Long.MIN_VALUE)).isTrue();
+    assertThat(set.add(Long.MAX_VALUE)).isTrue();
+    assertThat(set.add(0xFFFF_FFFFL)).isTrue();
+
+    assertThat(set.contains(42L)).isTrue();
+    assertThat(set.contains(43L)).isFalse();
+    assertThat(set.cardinality()).isEqualTo(6);
+    assertThat(set)
+        .containsExactly(Long.MIN_VALUE, -1L, 42L, 0xFFFF_FFFFL, 1L << 40, Long.MAX_VALUE);
+
+    assertThat(set.remove(1L << 40)).isTrue();
+    assertThat(set.remove(1L << 40)).isFalse();
+    assertThat(set.longStream().toArray())
+        .containsExactly(Long.MIN_VALUE, -1L, 42L, 0xFFFF_FFFFL, Long.MAX_VALUE);
+  }
+
+  @Test
+  void testSetInterface() {
+    LongBitmapSet set = SetUtils.longSet(3, 1, 2);
+
+    assertThat(set.contains((Object) 2L)).isTrue();
+    assertThat(set.contains((Object) 2)).isFalse();
+    assertThat(set).isEqualTo(Set.of(1L, 2L, 3L));
+    assertThat(set).hasSameHashCodeAs(Set.of(1L, 2L, 3L));
+    assertThat(set).isEqualTo(SetUtils.longSet(1, 2, 3));
+  }
+
+  @Test
+  void testSetOperations_agreeWithTreeSet() {
+    Random random = new Random(7);
+    for (int round = 0; round < 20; round++) {
+      TreeSet<Long> expected1 = randomValues(random);
+      TreeSet<Long> expected2 = randomValues(random);
+      LongBitmapSet set1 = new LongBitmapSet();
+      expected1.forEach(set1::add);
+      LongBitmapSet set2 = new LongBitmapSet();
+      expected2.forEach(set2::add);
+      set1.runOptimize();
+
+      assertThat(set1.and(set2).longStream().toArray())
+          .isEqualTo(toArray(SetUtils.intersection(expected1, expected2)));
+      assertThat(set1.or(set2).longStream().toArray())
+          .isEqualTo(toArray(SetUtils.union(expected1, expected2)));
+      assertThat(set1.andNot(set2).longStream().toArray())
+          .isEqualTo(toArray(SetUtils.difference(expected1, expected2)));
+    }
+  }
+
+  @Test
+  void testRunOptimize_denseRange() {
+    LongBitmapSet set = new LongBitmapSet();
+    LongStream.range(5_000_000_000L, 5_001_000_000L).forEach(set::add);
+
+    assertThat(set.runOptimize()).isTrue();
+
+    assertThat(set.sizeInBytes()).isLessThan(1_000);
+    assertThat(set.cardinality()).isEqualTo(1_000_000);
+    assertThat(set.longStream().min()).hasValue(5_000_000_000L);
+  }
+
+  @Test
+  void testRemoveIf() {
+    LongBitmapSet set = SetUtils.longSet(1, 2, 3, 1L << 33);
+
+    assertThat(set.removeIf(value -> value % 2 == 0)).isTrue();
+
+    assertThat(set).containsExactly(1L, 3L);
+    assertThat(set.cardinality()).isEqualTo(2);
+  }
+
+  private static long[] toArray(Set<Long> values) {
+    return values.stream().mapToLong(Long::longValue).toArray();
+  }
+
+  private static TreeSet<Long> randomValues(Random random) {
+    TreeSet<Long> values = new TreeSet<>();
+    random
+        .longs(2_000, -3, 3)
+        .map(high -> (high << 32) + random.nextInt(100_000))
+        .forEach(values::add);
+    return values;
+  }
+}
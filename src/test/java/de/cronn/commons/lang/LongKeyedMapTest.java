@@ -0,0 +1,95 @@
+package de.cronn.commons.lang;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class LongKeyedMapTest {
+
+  @Test
+  void testPutAndGet() {
+    LongKeyedMap<String> map = new LongKeyedMap<>();
+
+    assertThat(map.put(5_000_000_000L, "a")).isNull();
+    assertThat(map.put(-1, "b")).isNull();
+    assertThat(map.put(0, null)).isNull();
+    assertThat(map.put(-1, "c")).isEqualTo("b");
+
+    assertThat(map.size()).isEqualTo(3);
+    assertThat(map.get(5_000_000_000L)).isEqualTo("a");
+    assertThat(map.get(-1)).isEqualTo("c");
+    assertThat(map.get(0)).isNull();
+    assertThat(map.containsKey(0)).isTrue();
+    assertThat(map.get(1)).isNull();
+    assertThat(map.containsKey(1)).isFalse();
+    assertThat(map.getOrDefault(1, "default")).isEqualTo("default");
+    assertThat(map.getOrDefault(0, "default")).isNull();
+  }
+
+  @Test
+  void testInsertionOrder() {
+    LongKeyedMap<String> map = new LongKeyedMap<>(1);
+    map.put(3, "three");
+    map.put(1, "one");
+    map.put(2, "two");
+    map.put(1, "ONE");
+
+    List<String> entries = new ArrayList<>();
+    map.forEach((key, value) -> entries.add(key + ":" + value));
+
+    assertThat(entries).containsExactly("3:three", "1:ONE", "2:two");
+    assertThat(map.keys()).containsExactly(3L, 1L, 2L);
+    assertThat(map.values()).containsExactly("three", "ONE", "two");
+    assertThat(map).hasToString("{3=three, 1=ONE, 2=two}");
+  }
+
+  @Test
+  void testManyEntries() {
+    LongKeyedMap<Long> map = new LongKeyedMap<>();
+    long[] keys = new Random(1).longs(100_000).toArray();
+    for (long key : keys) {
+      map.put(key, key * 2);
+    }
+
+    assertThat(map.size()).isEqualTo(100_000);
+    for (long key : keys) {
+      assertThat(map.get(key)).isEqualTo(key * 2);
+    }
+    assertThat(map.keys().toArray()).isEqualTo(keys);
+  }
+
+  @Test
+  void testEqualsAndHashCode() {
+    LongKeyedMap<String> map1 = new LongKeyedMap<>();
+    map1.put(1, "a");
+    map1.put(2, "b");
+    LongKeyedMap<String> map2 = new LongKeyedMap<>();
+    map2.put(2, "b");
+    map2.put(1, "a");
+
+    assertThat(map1).isEqualTo(map2).hasSameHashCodeAs(map2);
+    map2.put(2, "c");
+    assertThat(map1).isNotEqualTo(map2);
+  }
+
+  @Test
+  void testValuesIsUnmodifiable() {
+    LongKeyedMap<String> map = new LongKeyedMap<>();
+    map.put(1, "a");
+
+    assertThatExceptionOfType(UnsupportedOperationException.class)
+        .isThrownBy(() -> map.values().add("b"));
+    assertThatExceptionOfType(IndexOutOfBoundsException.class)
+        .isThrownBy(() -> map.values().get(1));
+  }
+
+  @Test
+  void testRejectsNegativeExpectedSize() {
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .isThrownBy(() -> new LongKeyedMap<>(-1))
+        .withMessage("expectedSize must not be negative but was -1");
+  }
+}
@@ -0,0 +1,144 @@
+package de.cronn.commons.lang;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PathUtilsTest {
+
+  @TempDir Path directory;
+
+  @Test
+  void testWalkSorted_depthFirstInNaturalOrder() throws IOException {
+    createFiles("file10.txt", "file2.txt", "part-10/x", "part-9/a10", "part-9/a2", "part-9/a1");
+
+    assertThat(walkSorted(Integer.MAX_VALUE))
+        .containsExactly(
+            "",
+            "file2.txt",
+            "file10.txt",
+            "part-9",
+            "part-9/a1",
+            "part-9/a2",
+            "part-9/a10",
+            "part-10",
+            "part-10/x");
+  }
+
+  @Test
+  void testWalkSorted_maxDepth() throws IOException {
+    createFiles("b/c/d", "a");
+
+    assertThat(walkSorted(0)).containsExactly("");
+    assertThat(walkSorted(1)).containsExactly("", "a", "b");
+    assertThat(walkSorted(2)).containsExactly("", "a", "b", "b/c");
+    assertThat(walkSorted(3)).containsExactly("", "a", "b", "b/c", "b/c/d");
+  }
+
+  @Test
+  void testWalkSorted_largeTreeMatchesSortedWalk() throws IOException {
+    List<String> files = new ArrayList<>();
+    for (int i = 0; i < 30; i++) {
+      for (int j = 0; j < 5; j++) {
+        files.add("dir-" + i + "/sub-" + (j % 2) + "/file-" + j + ".txt");
+      }
+    }
+    createFiles(files.toArray(String[]::new));
+
+    assertThat(walkSorted(Integer.MAX_VALUE)).isEqualTo(referenceWalk(directory));
+  }
+
+  @Test
+  void testWalkSorted_regularFile() throws IOException {
+    Path file = Files.createFile(directory.resolve("file.txt"));
+
+    try (Stream<Path> paths = PathUtils.walkSorted(file)) {
+      assertThat(paths).containsExactly(file);
+    }
+  }
+
+  @Test
+  void testWalkSorted_isLazy() throws IOException {
+    createFiles("a/b", "c/d");
+    File unreadable = directory.resolve("c").toFile();
+    assumeTrue(unreadable.setReadable(false));
+    try {
+      assumeFalse(unreadable.canRead(), "file permissions are not enforced for this user");
+
+      try (Stream<Path> paths = PathUtils.walkSorted(directory)) {
+        assertThat(paths.skip(1).findFirst()).contains(directory.resolve("a"));
+      }
+      assertThatExceptionOfType(UncheckedIOException.class)
+          .isThrownBy(() -> walkSorted(Integer.MAX_VALUE))
+          .withCauseInstanceOf(AccessDeniedException.class);
+    } finally {
+      unreadable.setReadable(true);
+    }
+  }
+
+  @Test
+  void testWalkSorted_missingStart() {
+    assertThatExceptionOfType(NoSuchFileException.class)
+        .isThrownBy(() -> PathUtils.walkSorted(directory.resolve("missing")));
+  }
+
+  @Test
+  void testWalkSorted_rejectsNegativeMaxDepth() {
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .isThrownBy(() -> PathUtils.walkSorted(directory, -1))
+        .withMessage("maxDepth must not be negative but was -1");
+  }
+
+  private void createFiles(String... relativePaths) throws IOException {
+    for (String relativePath : relativePaths) {
+      Path file = directory.resolve(relativePath);
+      Files.createDirectories(file.getParent());
+      Files.createFile(file);
+    }
+  }
+
+  private List<String> walkSorted(int maxDepth) throws IOException {
+    try (Stream<Path> paths = PathUtils.walkSorted(directory, maxDepth)) {
+      return paths.map(this::relativize).toList();
+    }
+  }
+
+  private List<String> referenceWalk(Path start) throws IOException {
+    List<String> result = new ArrayList<>();
+    result.add(relativize(start));
+    if (Files.isDirectory(start)) {
+      List<Path> children;
+      try (Stream<Path> list = Files.list(start)) {
+        children =
+            list.sorted(
+                    Comparator.comparing(
+                        path -> path.getFileName().toString(),
+                        AlphanumericComparator.getInstance()))
+                .toList();
+      }
+      for (Path child : children) {
+        result.addAll(referenceWalk(child));
+      }
+    }
+    return result;
+  }
+
+  private String relativize(Path path) {
+    return directory.relativize(path).toString().replace('\\', '/');
+  }
+}
@@ -2,6 +2,13 @@ package de.cronn.commons.lang;
 
 import static org.assertj.core.api.Assertions.*;
 
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.Test;
 
 class SetUtilsTest {
@@ -15,4 +22,167 @@ class SetUtilsTest {
     assertThat(SetUtils.orderedSet(null, "abc")).containsExactly(null, "abc");
     assertThat(SetUtils.orderedSet((Object) null)).singleElement().isNull();
   }
+
+  @Test
+  void testUnion() {
+    SetView<Integer> union =
+        SetUtils.union(SetUtils.orderedSet(3, 1, 2), SetUtils.orderedSet(4, 2));
+
+    assertThat(union).containsExactly(3, 1, 2, 4);
+    assertThat(union).hasSize(4);
+    assertThat(union.contains(4)).isTrue();
+    assertThat(union.contains(5)).isFalse();
+    assertThat(union).isEqualTo(Set.of(1, 2, 3, 4));
+  }
+
+  @Test
+  void testIntersection_iteratesSmallerSet() {
+    SetView<Integer> intersection =
+        SetUtils.intersection(SetUtils.orderedSet(5, 4, 3, 2, 1), SetUtils.orderedSet(2, 6, 4));
+
+    assertThat(intersection).containsExactly(2, 4);
+    assertThat(intersection.contains(5)).isFalse();
+    assertThat(intersection.contains(4)).isTrue();
+  }
+
+  @Test
+  void testDifference() {
+    SetView<String> difference =
+        SetUtils.difference(SetUtils.orderedSet("c", "a", "b"), SetUtils.orderedSet("a", "d"));
+
+    assertThat(difference).containsExactly("c", "b");
+    assertThat(difference.contains("a")).isFalse();
+    assertThat(difference.contains("d")).isFalse();
+  }
+
+  @Test
+  void testSymmetricDifference() {
+    SetView<Integer> symmetricDifference =
+        SetUtils.symmetricDifference(SetUtils.orderedSet(1, 2, 3), SetUtils.orderedSet(4, 3, 2));
+
+    assertThat(symmetricDifference).containsExactly(1, 4);
+    assertThat(symmetricDifference.contains(1)).isTrue();
+    assertThat(symmetricDifference.contains(2)).isFalse();
+  }
+
+  @Test
+  void testViewsWithNullElements() {
+    Set<String> set1 = SetUtils.orderedSet(null, "a");
+    Set<String> set2 = SetUtils.orderedSet("b");
+
+    assertThat(SetUtils.union(set1, set2)).containsExactly(null, "a", "b");
+    assertThat(SetUtils.difference(set1, set2)).containsExactly(null, "a");
+    assertThat(SetUtils.intersection(set1, SetUtils.orderedSet((String) null))).containsNull();
+  }
+
+  @Test
+  void testSortedSets_mergeInSortOrder() {
+    TreeSet<Integer> set1 = new TreeSet<>(Set.of(1, 3, 5, 7, 9));
+    TreeSet<Integer> set2 = new TreeSet<>(Set.of(2, 3, 4, 9, 10));
+
+    assertThat(SetUtils.union(set1, set2)).containsExactly(1, 2, 3, 4, 5, 7, 9, 10);
+    assertThat(SetUtils.intersection(set1, set2)).containsExactly(3, 9);
+    assertThat(SetUtils.difference(set1, set2)).containsExactly(1, 5, 7);
+    assertThat(SetUtils.difference(set2, set1)).containsExactly(2, 4, 10);
+    assertThat(SetUtils.symmetricDifference(set1, set2)).containsExactly(1, 2, 4, 5, 7, 10);
+    assertThat(SetUtils.union(set1, new TreeSet<Integer>())).containsExactly(1, 3, 5, 7, 9);
+    assertThat(SetUtils.intersection(set1, new TreeSet<Integer>())).isEmpty();
+  }
+
+  @Test
+  void testSortedSets_withCustomComparator() {
+    TreeSet<String> set1 = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    set1.addAll(Set.of("a", "B", "c"));
+    TreeSet<String> set2 = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    set2.addAll(Set.of("b", "D"));
+
+    assertThat(SetUtils.union(set1, set2)).containsExactly("a", "B", "c", "D");
+    assertThat(SetUtils.intersection(set1, set2)).containsExactly("B");
+
+    TreeSet<String> reversed = new TreeSet<>(Comparator.reverseOrder());
+    reversed.addAll(Set.of("a", "b"));
+    assertThat(SetUtils.union(new TreeSet<>(Set.of("b", "c")), reversed))
+        .containsExactlyInAnyOrder("a", "b", "c");
+  }
+
+  @Test
+  void testSortedSets_agreeWithHashSets() {
+    Set<Integer> hashed1 =
+        IntStream.range(0, 1000).filter(i -> i % 3 == 0).boxed().collect(Collectors.toSet());
+    Set<Integer> hashed2 =
+        IntStream.range(500, 1500).filter(i -> i % 5 == 0).boxed().collect(Collectors.toSet());
+    TreeSet<Integer> sorted1 = new TreeSet<>(hashed1);
+    TreeSet<Integer> sorted2 = new TreeSet<>(hashed2);
+
+    assertThat(SetUtils.union(sorted1, sorted2)).isEqualTo(SetUtils.union(hashed1, hashed2));
+    assertThat(SetUtils.intersection(sorted1, sorted2))
+        .isEqualTo(SetUtils.intersection(hashed1, hashed2));
+    assertThat(SetUtils.difference(sorted1, sorted2))
+        .isEqualTo(SetUtils.difference(hashed1, hashed2));
+    assertThat(SetUtils.symmetricDifference(sorted1, sorted2))
+        .isEqualTo(SetUtils.symmetricDifference(hashed1, hashed2));
+  }
+
+  @Test
+  void testViewsAreLazy() {
+    Set<Integer> set1 = new HashSet<>(Set.of(1, 2));
+    Set<Integer> set2 = new HashSet<>(Set.of(2, 3));
+    SetView<Integer> union = SetUtils.union(set1, set2);
+
+    set2.add(4);
+
+    assertThat(union).containsExactlyInAnyOrder(1, 2, 3, 4);
+  }
+
+  @Test
+  void testViewsAreComposable() {
+    SetView<Integer> view =
+        SetUtils.difference(
+            SetUtils.union(SetUtils.orderedSet(1, 2), SetUtils.orderedSet(3)),
+            SetUtils.orderedSet(2));
+
+    assertThat(view).containsExactly(1, 3);
+    assertThat(view.isEmpty()).isFalse();
+    assertThat(SetUtils.intersection(view, SetUtils.orderedSet(4)).isEmpty()).isTrue();
+  }
+
+  @Test
+  void testCopyInto() {
+    SetView<Integer> union = SetUtils.union(SetUtils.orderedSet(2, 1), SetUtils.orderedSet(3));
+
+    LinkedHashSet<Integer> copy = union.copyInto(new LinkedHashSet<>());
+    TreeSet<Number> sorted = union.copyInto(new TreeSet<>());
+
+    assertThat(copy).containsExactly(2, 1, 3);
+    assertThat(sorted).containsExactly(1, 2, 3);
+  }
+
+  @Test
+  void testViewsAreUnmodifiable() {
+    SetView<Integer> union = SetUtils.union(SetUtils.orderedSet(1), SetUtils.orderedSet(2));
+
+    assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() -> union.add(3));
+    assertThatExceptionOfType(UnsupportedOperationException.class)
+        .isThrownBy(() -> union.remove(1));
+    assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(union::clear);
+    assertThatExceptionOfType(UnsupportedOperationException.class)
+        .isThrownBy(
+            () -> {
+              var iterator = union.iterator();
+              iterator.next();
+              iterator.remove();
+            });
+  }
+
+  @Test
+  void testIntSet() {
+    assertThat(SetUtils.intSet()).isEmpty();
+    assertThat(SetUtils.intSet(3, -1, 3, 200_000)).containsExactly(-1, 3, 200_000);
+  }
+
+  @Test
+  void testLongSet() {
+    assertThat(SetUtils.longSet()).isEmpty();
+    assertThat(SetUtils.longSet(3, -1, 3, 1L << 40)).containsExactly(-1L, 3L, 1L << 40);
+  }
 }
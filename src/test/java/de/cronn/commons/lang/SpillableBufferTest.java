@@ -0,0 +1,101 @@
+package de.cronn.commons.lang;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+class SpillableBufferTest {
+
+  private static final SpillableBuffer.Serializer<String> STRINGS =
+      SpillableBuffer.Serializer.strings();
+
+  private final List<String> elements =
+      IntStream.range(0, 10_000).mapToObj(i -> "element-" + i).toList();
+
+  @Test
+  void testInMemory() {
+    try (SpillableBuffer<String> buffer =
+        StreamUtil.spillable(elements.stream(), STRINGS, 10 * 1024 * 1024)) {
+      assertThat(buffer.isSpilled()).isFalse();
+      assertThat(buffer.size()).isEqualTo(10_000);
+      assertThat(buffer.stream()).containsExactlyElementsOf(elements);
+    }
+  }
+
+  @Test
+  void testSpilled_isReplayable() {
+    try (SpillableBuffer<String> buffer = StreamUtil.spillable(elements.stream(), STRINGS, 1024)) {
+      assertThat(buffer.isSpilled()).isTrue();
+      assertThat(buffer.size()).isEqualTo(10_000);
+      assertThat(buffer.stream()).containsExactlyElementsOf(elements);
+      assertThat(buffer.stream()).containsExactlyElementsOf(elements);
+    }
+  }
+
+  @Test
+  void testSpilled_parallel() {
+    try (SpillableBuffer<String> buffer = StreamUtil.spillable(elements.stream(), STRINGS, 1024)) {
+      assertThat(buffer.stream().spliterator().trySplit()).isNotNull();
+      assertThat(buffer.stream().parallel().map(String::toUpperCase).toList())
+          .containsExactlyElementsOf(elements.stream().map(String::toUpperCase).toList());
+      assertThat(buffer.stream().parallel().count()).isEqualTo(10_000);
+    }
+  }
+
+  @Test
+  void testEmpty() {
+    try (SpillableBuffer<String> buffer = StreamUtil.spillable(Stream.empty(), STRINGS, 0)) {
+      assertThat(buffer.size()).isZero();
+      assertThat(buffer.stream()).isEmpty();
+      try (SpillableBuffer<String> sorted = buffer.sorted(String::compareTo)) {
+        assertThat(sorted.stream()).isEmpty();
+      }
+    }
+  }
+
+  @Test
+  void testSorted_inMemory() {
+    try (SpillableBuffer<String> buffer =
+            StreamUtil.spillable(Stream.of("file-10", "file-2", "file-1"), STRINGS, 1024);
+        SpillableBuffer<String> sorted = buffer.sorted(AlphanumericComparator.getInstance())) {
+      assertThat(sorted.stream()).containsExactly("file-1", "file-2", "file-10");
+      assertThat(buffer.stream()).containsExactly("file-10", "file-2", "file-1");
+    }
+  }
+
+  @Test
+  void testSorted_externalMergeSort() {
+    List<String> shuffled =
+        IntStream.range(0, 10_000)
+            .map(i -> (i * 7919) % 10_000)
+            .mapToObj(i -> "element-" + i)
+            .toList();
+
+    try (SpillableBuffer<String> buffer = StreamUtil.spillable(shuffled.stream(), STRINGS, 4096);
+        SpillableBuffer<String> sorted = buffer.sorted(AlphanumericComparator.getInstance())) {
+      assertThat(sorted.isSpilled()).isTrue();
+      assertThat(sorted.size()).isEqualTo(10_000);
+      assertThat(sorted.stream()).containsExactlyElementsOf(elements);
+    }
+  }
+
+  @Test
+  void testClosed() {
+    SpillableBuffer<String> buffer = StreamUtil.spillable(elements.stream(), STRINGS, 1024);
+    buffer.close();
+
+    assertThatExceptionOfType(IllegalStateException.class)
+        .isThrownBy(buffer::stream)
+        .withMessage("Buffer is closed");
+  }
+
+  @Test
+  void testNegativeMaxHeapBytes() {
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .isThrownBy(() -> StreamUtil.spillable(Stream.of("a"), STRINGS, -1))
+        .withMessage("maxHeapBytes must not be negative but was -1");
+  }
+}
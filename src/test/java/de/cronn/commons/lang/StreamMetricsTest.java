@@ -0,0 +1,72 @@
+package de.cronn.commons.lang;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class StreamMetricsTest {
+
+  @BeforeEach
+  void enableMetrics() {
+    StreamMetrics.reset();
+    StreamMetrics.setEnabled(true);
+  }
+
+  @AfterEach
+  void disableMetrics() {
+    StreamMetrics.setEnabled(false);
+    StreamMetrics.reset();
+  }
+
+  @Test
+  void testSnapshot_unknownName() {
+    assertThat(StreamMetrics.snapshot("unknown"))
+        .isEqualTo(new StreamMetrics.Snapshot("unknown", 0, 0, 0, 0, 0));
+  }
+
+  @Test
+  void testSnapshot_sortedByName() {
+    StreamUtil.metered(Stream.of(1, 2), "b").forEach(value -> {});
+    StreamUtil.metered(Stream.of(1), "a").forEach(value -> {});
+
+    assertThat(StreamMetrics.snapshot()).containsOnlyKeys("a", "b");
+    assertThat(StreamMetrics.snapshot().sequencedKeySet()).containsExactly("a", "b");
+    assertThat(StreamMetrics.snapshot("b").elements()).isEqualTo(2);
+  }
+
+  @Test
+  void testSnapshot_elementsPerSecond() {
+    assertThat(new StreamMetrics.Snapshot("test", 10, 0, 1_000_000_000L, 0, 0).elementsPerSecond())
+        .isEqualTo(10.0);
+    assertThat(new StreamMetrics.Snapshot("test", 10, 0, 0, 0, 0).elementsPerSecond())
+        .isEqualTo(0.0);
+  }
+
+  @Test
+  void testReset() {
+    StreamUtil.metered(Stream.of(1), "reset").forEach(value -> {});
+
+    StreamMetrics.reset();
+
+    assertThat(StreamMetrics.snapshot()).isEmpty();
+  }
+
+  @Test
+  void testDisabled_recordsNothing() {
+    StreamMetrics.setEnabled(false);
+
+    Stream<Integer> stream = Stream.of(1, 2, 3);
+    assertThat(StreamUtil.metered(stream, "disabled")).isSameAs(stream);
+    assertThat(
+            IntStream.range(0, 10)
+                .boxed()
+                .filter(StreamUtil.distinctByKey(value -> value % 2, "disabled")))
+        .containsExactly(0, 1);
+
+    assertThat(StreamMetrics.snapshot()).isEmpty();
+  }
+}
@@ -4,7 +4,14 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.entry;
 
+import java.io.IOException;
 import java.io.Serial;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
@@ -14,10 +21,19 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class StreamUtilTest {
 
@@ -33,6 +49,161 @@ class StreamUtilTest {
         .containsExactlyElementsOf(originalList);
   }
 
+  @Test
+  void testToLongKeyedMap() {
+    record Data(long id, String name) {}
+
+    Data data1 = new Data(5_000_000_000L, "a");
+    Data data2 = new Data(2, "b");
+    LongKeyedMap<Data> map = Stream.of(data1, data2).collect(StreamUtil.toLongKeyedMap(Data::id));
+
+    assertThat(map.get(5_000_000_000L)).isSameAs(data1);
+    assertThat(map.get(2)).isSameAs(data2);
+    assertThat(map.values()).containsExactly(data1, data2);
+  }
+
+  @Test
+  void testToLongKeyedMap_withValueMapper_parallelKeepsEncounterOrder() {
+    LongKeyedMap<String> map =
+        LongStream.range(0, 10_000)
+            .boxed()
+            .parallel()
+            .collect(StreamUtil.toLongKeyedMap(i -> i * 7, String::valueOf));
+
+    assertThat(map.size()).isEqualTo(10_000);
+    assertThat(map.get(70)).isEqualTo("10");
+    assertThat(map.keys().toArray())
+        .isEqualTo(LongStream.range(0, 10_000).map(i -> i * 7).toArray());
+  }
+
+  @Test
+  void testToLongKeyedMap_throwsOnDuplicateKey() {
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .isThrownBy(
+            () -> Stream.of("a", "bb", "c").collect(StreamUtil.toLongKeyedMap(String::length)))
+        .withMessage("Duplicate key '1' with values 'c' and 'a'");
+  }
+
+  @Test
+  void testToLongKeyedMap_customDuplicateKeyException() {
+    assertThatExceptionOfType(IllegalStateException.class)
+        .isThrownBy(
+            () ->
+                Stream.of("a", "bb", "c")
+                    .collect(
+                        StreamUtil.toLongKeyedMap(
+                            String::length,
+                            String::toUpperCase,
+                            (key, newValue, existingValue) ->
+                                new IllegalStateException(
+                                    key + ": " + newValue + " vs. " + existingValue))))
+        .withMessage("1: C vs. A");
+  }
+
+  @Test
+  void testToIntKeyedMap() {
+    record Data(int id, String name) {}
+
+    Data data1 = new Data(3, "a");
+    Data data2 = new Data(1, "b");
+    IntKeyedMap<String> map =
+        Stream.of(data1, data2).collect(StreamUtil.toIntKeyedMap(Data::id, Data::name));
+
+    assertThat(map.get(3)).isEqualTo("a");
+    assertThat(map.get(1)).isEqualTo("b");
+    assertThat(map.keys()).containsExactly(3, 1);
+    assertThat(Stream.of(data1, data2).collect(StreamUtil.toIntKeyedMap(Data::id)).get(1))
+        .isSameAs(data2);
+  }
+
+  @Test
+  void testToIntKeyedMap_withValueMapper_parallelKeepsEncounterOrder() {
+    IntKeyedMap<String> map =
+        IntStream.range(0, 10_000)
+            .boxed()
+            .parallel()
+            .collect(StreamUtil.toIntKeyedMap(i -> Integer.MIN_VALUE + i * 7, String::valueOf));
+
+    assertThat(map.size()).isEqualTo(10_000);
+    assertThat(map.get(Integer.MIN_VALUE)).isEqualTo("0");
+    assertThat(map.get(Integer.MIN_VALUE + 70)).isEqualTo("10");
+    assertThat(map.keys().toArray())
+        .isEqualTo(IntStream.range(0, 10_000).map(i -> Integer.MIN_VALUE + i * 7).toArray());
+  }
+
+  @Test
+  void testToIntKeyedMap_throwsOnDuplicateKey() {
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .isThrownBy(
+            () ->
+                IntStream.range(0, 1_000)
+                    .boxed()
+                    .parallel()
+                    .collect(StreamUtil.toIntKeyedMap(i -> i == 999 ? 0 : i)))
+        .withMessage("Duplicate key '0' with values '999' and '0'");
+  }
+
+  @Test
+  void testToDistinctByKey() {
+    List<String> result =
+        Stream.of("one", "two", "three", "four", "five")
+            .collect(StreamUtil.toDistinctByKey(value -> value.charAt(0)));
+
+    assertThat(result).containsExactly("one", "two", "four");
+    assertThat(Stream.<String>empty().collect(StreamUtil.toDistinctByKey(String::length)))
+        .isEmpty();
+  }
+
+  @Test
+  void testToDistinctByKey_parallelKeepsFirstInEncounterOrder() {
+    record Data(int key, int index) {}
+
+    List<Data> elements =
+        IntStream.range(0, 100_000).mapToObj(i -> new Data((i * 7919) % 1_000, i)).toList();
+    List<Data> expected = elements.stream().filter(StreamUtil.distinctByKey(Data::key)).toList();
+
+    for (int round = 0; round < 10; round++) {
+      assertThat(elements.parallelStream().collect(StreamUtil.toDistinctByKey(Data::key)))
+          .containsExactlyElementsOf(expected);
+    }
+  }
+
+  @Test
+  void testToDistinctByKey_nullKey() {
+    assertThat(
+            Stream.of("a", "b", "c")
+                .collect(StreamUtil.toDistinctByKey(value -> value.equals("a") ? "x" : null)))
+        .containsExactly("a", "b");
+  }
+
+  @Test
+  void testToIntSet() {
+    record Data(int id) {}
+
+    IntBitmapSet ids =
+        Stream.of(new Data(3), new Data(1), new Data(3)).collect(StreamUtil.toIntSet(Data::id));
+
+    assertThat(ids).containsExactly(1, 3);
+  }
+
+  @Test
+  void testToIntSet_parallel() {
+    IntBitmapSet values =
+        IntStream.range(0, 100_000).boxed().parallel().collect(StreamUtil.toIntSet(i -> i * 2));
+
+    assertThat(values.cardinality()).isEqualTo(100_000);
+    assertThat(values.intStream().toArray())
+        .containsExactly(IntStream.range(0, 100_000).map(i -> i * 2).toArray());
+  }
+
+  @Test
+  void testToLongSet() {
+    LongBitmapSet ids =
+        Stream.of("5000000000", "7", "7").parallel().collect(StreamUtil.toLongSet(Long::parseLong));
+
+    assertThat(ids).containsExactly(7L, 5_000_000_000L);
+  }
+
   @Test
   void testToSingleOptionalElement_throwsWhenNonSingleElementStream() {
     assertThatExceptionOfType(IllegalStateException.class)
@@ -258,4 +429,520 @@ class StreamUtilTest {
 
     assertThat(duplicates).containsExactly("TWO", "Three");
   }
+
+  @Test
+  void testDistinctByKey_metered() {
+    StreamMetrics.setEnabled(true);
+    try {
+      assertThat(
+              Stream.of("one", "two", "TWO", "three", "Three", "four")
+                  .filter(StreamUtil.distinctByKey(String::toLowerCase, "testDistinctByKey")))
+          .containsExactly("one", "two", "three", "four");
+
+      StreamMetrics.Snapshot snapshot = StreamMetrics.snapshot("testDistinctByKey");
+      assertThat(snapshot.distinctHits()).isEqualTo(4);
+      assertThat(snapshot.duplicates()).isEqualTo(2);
+    } finally {
+      StreamMetrics.setEnabled(false);
+      StreamMetrics.reset();
+    }
+  }
+
+  @Test
+  void testMetered() {
+    StreamMetrics.setEnabled(true);
+    try {
+      List<Integer> result =
+          StreamUtil.metered(Stream.of(1, 2, 3), "testMetered").peek(value -> sleep(1)).toList();
+
+      assertThat(result).containsExactly(1, 2, 3);
+      StreamMetrics.Snapshot snapshot = StreamMetrics.snapshot("testMetered");
+      assertThat(snapshot.elements()).isEqualTo(3);
+      assertThat(snapshot.downstreamNanos()).isGreaterThanOrEqualTo(3_000_000L);
+      assertThat(snapshot.elapsedNanos()).isGreaterThanOrEqualTo(snapshot.downstreamNanos());
+      assertThat(snapshot.elementsPerSecond()).isPositive();
+    } finally {
+      StreamMetrics.setEnabled(false);
+      StreamMetrics.reset();
+    }
+  }
+
+  @Test
+  void testMetered_parallel() {
+    StreamMetrics.setEnabled(true);
+    try {
+      List<Integer> elements = IntStream.range(0, 10_000).boxed().toList();
+
+      List<Integer> result =
+          StreamUtil.metered(elements.parallelStream(), "testMetered_parallel")
+              .map(value -> value + 1)
+              .toList();
+
+      assertThat(result).hasSize(10_000).startsWith(1, 2, 3);
+      assertThat(StreamMetrics.snapshot("testMetered_parallel").elements()).isEqualTo(10_000);
+    } finally {
+      StreamMetrics.setEnabled(false);
+      StreamMetrics.reset();
+    }
+  }
+
+  @Test
+  void testMapConcurrent_preservesEncounterOrder() {
+    List<Integer> result =
+        StreamUtil.mapConcurrent(
+                IntStream.range(0, 100).boxed(),
+                value -> {
+                  sleep(100 - value);
+                  return value * 2;
+                },
+                16)
+            .toList();
+
+    assertThat(result)
+        .containsExactlyElementsOf(IntStream.range(0, 100).map(v -> v * 2).boxed().toList());
+  }
+
+  @Test
+  void testMapConcurrent_limitsConcurrency() {
+    AtomicInteger concurrentInvocations = new AtomicInteger();
+    AtomicInteger maxConcurrentInvocations = new AtomicInteger();
+
+    long count =
+        StreamUtil.mapConcurrent(
+                IntStream.range(0, 50).boxed(),
+                value -> {
+                  int current = concurrentInvocations.incrementAndGet();
+                  maxConcurrentInvocations.accumulateAndGet(current, Math::max);
+                  sleep(2);
+                  concurrentInvocations.decrementAndGet();
+                  return value;
+                },
+                4)
+            .count();
+
+    assertThat(count).isEqualTo(50);
+    assertThat(maxConcurrentInvocations.get()).isBetween(1, 4);
+  }
+
+  @Test
+  void testMapConcurrent_runsOnVirtualThreads() {
+    assertThat(StreamUtil.mapConcurrent(Stream.of(1, 2, 3), value -> Thread.currentThread(), 2))
+        .allMatch(Thread::isVirtual);
+  }
+
+  @Test
+  void testMapConcurrent_propagatesException() {
+    Stream<Integer> stream =
+        StreamUtil.mapConcurrent(
+            Stream.of(1, 2, 3),
+            value -> {
+              if (value == 2) {
+                throw new TestException();
+              }
+              return value;
+            },
+            2);
+
+    assertThatExceptionOfType(TestException.class).isThrownBy(stream::toList);
+  }
+
+  @Test
+  void testMapConcurrent_closeCancelsInFlightInvocations() {
+    CountDownLatch started = new CountDownLatch(3);
+    CountDownLatch interrupted = new CountDownLatch(3);
+
+    try (Stream<Integer> stream =
+        StreamUtil.mapConcurrent(
+            Stream.of(1, 2, 3, 4),
+            value -> {
+              if (value == 1) {
+                awaitUninterruptibly(started);
+                return value;
+              }
+              started.countDown();
+              try {
+                Thread.sleep(Duration.ofMinutes(1));
+              } catch (InterruptedException e) {
+                interrupted.countDown();
+              }
+              return value;
+            },
+            4)) {
+      assertThat(stream.findFirst()).hasValue(1);
+    }
+
+    assertThat(awaitUninterruptibly(interrupted)).isTrue();
+  }
+
+  @Test
+  void testMapConcurrentUnordered_emitsInCompletionOrder() {
+    List<Integer> result =
+        StreamUtil.mapConcurrentUnordered(
+                Stream.of(300, 1),
+                value -> {
+                  sleep(value);
+                  return value;
+                },
+                2)
+            .toList();
+
+    assertThat(result).containsExactly(1, 300);
+  }
+
+  @Test
+  void testMapConcurrent_rejectsNonPositiveConcurrency() {
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .isThrownBy(() -> StreamUtil.mapConcurrent(Stream.of(1), Function.identity(), 0))
+        .withMessage("maxConcurrency must be positive but was 0");
+  }
+
+  @Test
+  void testLines_splitsOnAllLineTerminators(@TempDir Path directory) throws IOException {
+    Path file = Files.writeString(directory.resolve("lines.txt"), "a\nb\r\nc\rd\n\ne");
+
+    try (Stream<String> lines = StreamUtil.lines(file, StandardCharsets.UTF_8)) {
+      assertThat(lines).containsExactly("a", "b", "c", "d", "", "e");
+    }
+  }
+
+  @Test
+  void testLines_emptyFile(@TempDir Path directory) throws IOException {
+    Path file = Files.createFile(directory.resolve("empty.txt"));
+
+    try (Stream<String> lines = StreamUtil.lines(file, StandardCharsets.UTF_8)) {
+      assertThat(lines).isEmpty();
+    }
+  }
+
+  @Test
+  void testLines_parallel(@TempDir Path directory) throws IOException {
+    List<String> expected =
+        IntStream.range(0, 100_000)
+            .mapToObj(i -> "line-" + i + (i % 7 == 0 ? "\u00e4" : ""))
+            .toList();
+    Path file = Files.writeString(directory.resolve("lines.txt"), String.join("\r\n", expected));
+
+    try (Stream<String> lines = StreamUtil.lines(file, StandardCharsets.UTF_8)) {
+      assertThat(lines.parallel().toList()).isEqualTo(expected);
+    }
+    try (Stream<String> lines = StreamUtil.lines(file, StandardCharsets.UTF_8)) {
+      Map<Integer, List<String>> byLength =
+          lines.parallel().collect(StreamUtil.groupingBy(String::length));
+      assertThat(byLength)
+          .isEqualTo(expected.stream().collect(StreamUtil.groupingBy(String::length)));
+    }
+  }
+
+  @Test
+  void testLines_linesCrossingRegionBoundaries(@TempDir Path directory) throws IOException {
+    List<String> expected = IntStream.range(0, 10_000).mapToObj(i -> "x".repeat(i % 13)).toList();
+    String content = expected.stream().collect(Collectors.joining("\r\n", "", "\r\n"));
+    Path file = Files.writeString(directory.resolve("lines.txt"), content);
+
+    for (int regionSize : new int[] {14, 15, 17, 1024}) {
+      try (FileChannel channel = FileChannel.open(file)) {
+        Spliterator<String> spliterator =
+            new MappedLinesSpliterator(
+                channel, StandardCharsets.UTF_8, 0, channel.size(), regionSize);
+        assertThat(StreamSupport.stream(spliterator, true).toList())
+            .as("region size %d", regionSize)
+            .isEqualTo(expected);
+      }
+    }
+  }
+
+  @Test
+  void testLines_lineLongerThanRegion(@TempDir Path directory) throws IOException {
+    Path file = Files.writeString(directory.resolve("lines.txt"), "short\nmuch too long\n");
+
+    try (FileChannel channel = FileChannel.open(file)) {
+      Spliterator<String> spliterator =
+          new MappedLinesSpliterator(channel, StandardCharsets.UTF_8, 0, channel.size(), 8);
+      assertThatExceptionOfType(UncheckedIOException.class)
+          .isThrownBy(() -> StreamSupport.stream(spliterator, false).toList())
+          .withMessageEndingWith("Line at offset 6 is longer than 8 bytes");
+    }
+  }
+
+  @Test
+  void testLines_malformedInput(@TempDir Path directory) throws IOException {
+    Path file = Files.write(directory.resolve("lines.txt"), new byte[] {'a', '\n', (byte) 0xC3});
+
+    try (Stream<String> lines = StreamUtil.lines(file, StandardCharsets.UTF_8)) {
+      assertThatExceptionOfType(UncheckedIOException.class).isThrownBy(lines::toList);
+    }
+  }
+
+  @Test
+  void testLines_fallsBackForCharsetsThatAreNotAsciiCompatible(@TempDir Path directory)
+      throws IOException {
+    Path file =
+        Files.writeString(directory.resolve("lines.txt"), "a\n\u010a\n", StandardCharsets.UTF_16);
+
+    try (Stream<String> lines = StreamUtil.lines(file, StandardCharsets.UTF_16)) {
+      assertThat(lines).containsExactly("a", "\u010a");
+    }
+  }
+
+  @Test
+  void testPartitionByKey_keepsOrderPerKey() {
+    Map<Integer, List<Integer>> valuesByKey = new ConcurrentHashMap<>();
+    Map<Integer, Set<Thread>> threadsByKey = new ConcurrentHashMap<>();
+
+    StreamUtil.partitionByKey(
+        IntStream.range(0, 100_000).boxed(),
+        value -> value % 97,
+        4,
+        value -> {
+          valuesByKey.computeIfAbsent(value % 97, key -> new ArrayList<>()).add(value);
+          threadsByKey
+              .computeIfAbsent(value % 97, key -> ConcurrentHashMap.newKeySet())
+              .add(Thread.currentThread());
+        });
+
+    assertThat(valuesByKey).hasSize(97);
+    assertThat(valuesByKey.values()).allSatisfy(values -> assertThat(values).isSorted());
+    assertThat(valuesByKey.values().stream().mapToInt(List::size).sum()).isEqualTo(100_000);
+    assertThat(threadsByKey.values()).allSatisfy(threads -> assertThat(threads).hasSize(1));
+  }
+
+  @Test
+  void testPartitionByKey_appliesBackpressure() {
+    AtomicInteger consumed = new AtomicInteger();
+    AtomicInteger maxBacklog = new AtomicInteger();
+    AtomicInteger produced = new AtomicInteger();
+
+    new KeyPartitioner<Integer, Integer>(
+            value -> value % 2,
+            2,
+            4,
+            value -> {
+              sleep(1);
+              consumed.incrementAndGet();
+            })
+        .run(
+            IntStream.range(0, 200)
+                .boxed()
+                .peek(
+                    value ->
+                        maxBacklog.accumulateAndGet(
+                            produced.incrementAndGet() - consumed.get(), Math::max))
+                .spliterator());
+
+    assertThat(consumed).hasValue(200);
+    assertThat(maxBacklog.get()).isLessThanOrEqualTo(2 * (4 + 1) + 1);
+  }
+
+  @Test
+  void testPartitionByKey_propagatesConsumerFailure() {
+    AtomicInteger consumed = new AtomicInteger();
+
+    assertThatExceptionOfType(IllegalStateException.class)
+        .isThrownBy(
+            () ->
+                StreamUtil.partitionByKey(
+                    Stream.iterate(0, value -> value + 1),
+                    Function.identity(),
+                    4,
+                    value -> {
+                      if (value == 1_000) {
+                        throw new IllegalStateException("failed at " + value);
+                      }
+                      consumed.incrementAndGet();
+                    }))
+        .withMessage("failed at 1000");
+    assertThat(consumed.get()).isLessThan(1_000 + 4 * KeyPartitioner.LANE_CAPACITY);
+  }
+
+  @Test
+  void testPartitionByKey_propagatesSourceFailure() {
+    AtomicInteger consumed = new AtomicInteger();
+
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .isThrownBy(
+            () ->
+                StreamUtil.partitionByKey(
+                    IntStream.range(0, 100)
+                        .boxed()
+                        .map(
+                            value -> {
+                              if (value == 50) {
+                                throw new IllegalArgumentException("invalid " + value);
+                              }
+                              return value;
+                            }),
+                    Function.identity(),
+                    2,
+                    value -> consumed.incrementAndGet()))
+        .withMessage("invalid 50");
+    assertThat(consumed.get()).isLessThanOrEqualTo(50);
+    assertThat(Thread.getAllStackTraces().keySet())
+        .noneMatch(thread -> thread.getName().startsWith("partitionByKey-"));
+  }
+
+  @Test
+  void testPartitionByKey_rejectsNonPositiveLanes() {
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .isThrownBy(() -> StreamUtil.partitionByKey(Stream.of(1), Function.identity(), 0, v -> {}))
+        .withMessage("lanes must be positive but was 0");
+  }
+
+  @Test
+  void testDistinctByKeyStream_keepsFirstElementPerKey() {
+    Stream<String> distinct =
+        StreamUtil.distinctByKey(Stream.of("a", "bb", "c", "dd", "eee", null), this::lengthOrNull);
+
+    assertThat(distinct).containsExactly("a", "bb", "eee", null);
+  }
+
+  @Test
+  void testDistinctByKeyStream_parallelKeepsFirstElementInEncounterOrder() {
+    List<Integer> distinct =
+        StreamUtil.distinctByKey(IntStream.range(0, 100_000).boxed().parallel(), i -> i % 1_000)
+            .toList();
+
+    assertThat(distinct).isEqualTo(IntStream.range(0, 1_000).boxed().toList());
+  }
+
+  @Test
+  void testDistinctByKeyStream_shortCircuits() {
+    AtomicInteger pulled = new AtomicInteger();
+
+    List<Integer> distinct =
+        StreamUtil.distinctByKey(
+                Stream.iterate(0, i -> i + 1).peek(i -> pulled.incrementAndGet()), i -> i / 2)
+            .limit(3)
+            .toList();
+
+    assertThat(distinct).containsExactly(0, 2, 4);
+    assertThat(pulled.get()).isLessThanOrEqualTo(6);
+  }
+
+  @Test
+  void testWindowFixed() {
+    assertThat(StreamUtil.windowFixed(Stream.of(1, 2, 3, 4, 5), 2))
+        .containsExactly(List.of(1, 2), List.of(3, 4), List.of(5));
+    assertThat(StreamUtil.windowFixed(Stream.of(1, 2), 2)).containsExactly(List.of(1, 2));
+    assertThat(StreamUtil.windowFixed(Stream.empty(), 2)).isEmpty();
+  }
+
+  @Test
+  void testWindowFixed_parallel() {
+    List<List<Integer>> windows =
+        StreamUtil.windowFixed(IntStream.range(0, 10_000).boxed().parallel(), 3).toList();
+
+    assertThat(windows).hasSize(3_334);
+    assertThat(windows.get(1_000)).containsExactly(3_000, 3_001, 3_002);
+    assertThat(windows.getLast()).containsExactly(9_999);
+  }
+
+  @Test
+  void testWindowFixed_windowsAreUnmodifiable() {
+    List<Integer> window = StreamUtil.windowFixed(Stream.of(1, 2), 2).findFirst().orElseThrow();
+
+    assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() -> window.add(3));
+  }
+
+  @Test
+  void testWindowSliding() {
+    assertThat(StreamUtil.windowSliding(Stream.of(1, 2, 3, 4), 3))
+        .containsExactly(List.of(1, 2, 3), List.of(2, 3, 4));
+    assertThat(StreamUtil.windowSliding(Stream.of(1, 2), 3)).containsExactly(List.of(1, 2));
+    assertThat(StreamUtil.windowSliding(Stream.empty(), 3)).isEmpty();
+  }
+
+  @Test
+  void testWindow_rejectsNonPositiveWindowSize() {
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .isThrownBy(() -> StreamUtil.windowFixed(Stream.of(1), 0))
+        .withMessage("windowSize must be positive but was 0");
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .isThrownBy(() -> StreamUtil.windowSliding(Stream.of(1), -1))
+        .withMessage("windowSize must be positive but was -1");
+  }
+
+  @Test
+  void testBatchedByWeight() {
+    Stream<List<String>> batches =
+        StreamUtil.batchedByWeight(
+            Stream.of("aa", "bbb", "c", "dddddd", "e", "f"), 4, String::length);
+
+    assertThat(batches)
+        .containsExactly(List.of("aa"), List.of("bbb", "c"), List.of("dddddd"), List.of("e", "f"));
+  }
+
+  @Test
+  void testBatchedByWeight_rejectsInvalidWeights() {
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .isThrownBy(() -> StreamUtil.batchedByWeight(Stream.of("a"), 0, String::length))
+        .withMessage("maxWeight must be positive but was 0");
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .isThrownBy(() -> StreamUtil.batchedByWeight(Stream.of("a"), 10, s -> -1).toList())
+        .withMessage("weight must not be negative but was -1");
+  }
+
+  @Test
+  void testSingleElement() {
+    assertThat(StreamUtil.singleElement(Stream.of("a"))).isEqualTo("a");
+    assertThat(StreamUtil.singleElement(Stream.of((String) null))).isNull();
+  }
+
+  @Test
+  void testSingleElement_failsFastOnSecondElement() {
+    AtomicInteger pulled = new AtomicInteger();
+
+    assertThatExceptionOfType(IllegalStateException.class)
+        .isThrownBy(
+            () ->
+                StreamUtil.singleElement(
+                    Stream.iterate(1, i -> i + 1).peek(i -> pulled.incrementAndGet())))
+        .withMessage("Exactly one element expected but got at least 2: [1, 2]");
+    assertThat(pulled).hasValue(2);
+  }
+
+  @Test
+  void testSingleElement_emptyStream() {
+    assertThatExceptionOfType(IllegalStateException.class)
+        .isThrownBy(() -> StreamUtil.singleElement(Stream.empty()))
+        .withMessage("Exactly one element expected but got 0: []");
+  }
+
+  @Test
+  void testSingleElement_parallel() {
+    assertThat(StreamUtil.singleElement(IntStream.range(0, 1).boxed().parallel())).isZero();
+    assertThatExceptionOfType(IllegalStateException.class)
+        .isThrownBy(() -> StreamUtil.singleElement(IntStream.range(0, 1_000).boxed().parallel()))
+        .withMessageStartingWith("Exactly one element expected but got at least 2: ");
+  }
+
+  @Test
+  void testStreamOperations_releaseMatchesTestRun() {
+    // the testJava24 task puts the classes of META-INF/versions/24 first on the class path
+    int expectedRelease =
+        Integer.getInteger("de.cronn.commons.lang.expectedStreamOperationsRelease", 21);
+
+    assertThat(StreamOperations.release()).isEqualTo(expectedRelease);
+  }
+
+  private Integer lengthOrNull(String value) {
+    return value != null ? value.length() : null;
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static boolean awaitUninterruptibly(CountDownLatch latch) {
+    try {
+      return latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
 }